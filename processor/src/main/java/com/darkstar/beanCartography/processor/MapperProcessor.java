@@ -0,0 +1,417 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.processor;
+
+import com.darkstar.beanCartography.FieldFormatter;
+import com.darkstar.beanCartography.GeneratedMapper;
+import com.darkstar.beanCartography.annotations.NamedClass;
+import com.darkstar.beanCartography.annotations.NamedClassComposite;
+import com.darkstar.beanCartography.annotations.NamedClassMapper;
+import com.darkstar.beanCartography.annotations.NamedField;
+import com.darkstar.beanCartography.utils.NameUtils;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * This annotation processor generates a mapper for every source and target pair declared with the NamedClassMapper
+ * annotation and registers them for the ServiceLoader so Cartographer picks them up.  The generated code follows the
+ * same name matching rules Cartographer does at runtime for a pair of flat named classes: when both classes are the
+ * same the fields having the same names are copied, otherwise each target field is copied from the first source
+ * field having its name.  Formatters registered on the Cartographer are still applied.
+ * <p>
+ * Pairs that need more than that (composites, named fields that are not terminal, fields that cannot be read or
+ * written from the generated code) get a warning and are left to the runtime.  The processor ships in an artifact of
+ * its own registered with javax.annotation.processing so javac runs it whenever that artifact is on the processor
+ * path.  A formatter or copy failing in a generated mapper fails the mapping.
+ *
+ * @author michael snavely
+ */
+@SupportedAnnotationTypes("com.darkstar.beanCartography.annotations.NamedClassMapper")
+public class MapperProcessor extends AbstractProcessor {
+
+    private static final String SERVICE_FILE = "META-INF/services/" + GeneratedMapper.class.getName();
+
+    // generated mapper class names collected over all rounds...
+    private final Set<String> mappers = new TreeSet<>();
+
+    /**
+     * Constructor
+     */
+    public MapperProcessor() {
+        super();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(NamedClassMapper.class)) {
+            if (!(element instanceof TypeElement))
+                continue;
+            TypeElement source = (TypeElement) element;
+            for (TypeMirror target : getTargets(source)) {
+                try {
+                    generate(source, (TypeElement) processingEnv.getTypeUtils().asElement(target));
+                } catch (IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write mapper: " + e.getMessage(), source);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Class values of an annotation cannot be read as classes at compile time so go through the mirror.
+     *
+     * @param source class carrying the mapper annotation
+     * @return the target types listed on the annotation
+     */
+    private List<TypeMirror> getTargets(TypeElement source) {
+        List<TypeMirror> targets = new ArrayList<>();
+        for (AnnotationMirror mirror : source.getAnnotationMirrors()) {
+            if (!NamedClassMapper.class.getName().equals(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString()))
+                continue;
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (!"targets".equals(entry.getKey().getSimpleName().toString()))
+                    continue;
+                for (Object value : (List<?>) entry.getValue().getValue())
+                    targets.add((TypeMirror) ((AnnotationValue) value).getValue());
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Generate the mapper for one pair unless the pair cannot be mapped by straight copies.
+     *
+     * @param source class mapped from
+     * @param target class mapped to
+     * @throws IOException if the mapper could not be written
+     */
+    private void generate(TypeElement source, TypeElement target) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(source).getQualifiedName().toString();
+        String problem = checkClass(source, packageName);
+        if (problem == null)
+            problem = checkClass(target, packageName);
+        if (problem != null) {
+            warn(source, target, problem);
+            return;
+        }
+
+        Map<String, VariableElement> sourceFields = getNamedFields(source);
+        Map<String, VariableElement> targetFields = getNamedFields(target);
+        for (VariableElement field : concat(sourceFields, targetFields)) {
+            if (!isTerminal(field.asType())) {
+                warn(source, target, "named field " + field.getSimpleName() + " is not terminal");
+                return;
+            }
+        }
+
+        // the same name matching Cartographer does at runtime for flat classes...
+        String sourceName = source.getAnnotation(NamedClass.class).name();
+        String targetName = target.getAnnotation(NamedClass.class).name();
+        List<String> names = new ArrayList<>();
+        if (sourceName.equals(targetName)) {
+            if (!source.equals(target)) {
+                warn(source, target, "different classes share the business name " + sourceName);
+                return;
+            }
+            names.addAll(sourceFields.keySet());
+        } else {
+            if (sourceFields.containsKey(targetName)) {
+                warn(source, target, "a source field is named after the target class");
+                return;
+            }
+            for (String name : targetFields.keySet())
+                if (!name.equals(sourceName) && sourceFields.containsKey(name))
+                    names.add(name);
+        }
+
+        StringBuilder copies = new StringBuilder();
+        StringBuilder literals = new StringBuilder();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            String copy = generateCopy(i, sourceFields.get(name), targetFields.get(name), packageName);
+            if (copy == null) {
+                warn(source, target, "field " + name + " cannot be read or written by generated code");
+                return;
+            }
+            copies.append(copy);
+            literals.append(i == 0 ? "" : ", ").append("\"").append(name.replace("\\", "\\\\").replace("\"", "\\\"")).append("\"");
+        }
+
+        String simpleName = binarySimpleName(source) + "To" + binarySimpleName(target) + "Mapper";
+        String sourceType = source.getQualifiedName().toString();
+        String targetType = target.getQualifiedName().toString();
+        try (Writer writer = processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? simpleName : packageName + "." + simpleName, source).openWriter()) {
+            if (!packageName.isEmpty())
+                writer.write("package " + packageName + ";\n\n");
+            writer.write("/**\n * Generated by " + MapperProcessor.class.getName() + ", do not edit.\n */\n");
+            writer.write("public final class " + simpleName + " implements " + GeneratedMapper.class.getName() + "<" + sourceType + ", " + targetType + "> {\n\n");
+            writer.write("    public Class<" + sourceType + "> getSourceClass() {\n        return " + sourceType + ".class;\n    }\n\n");
+            writer.write("    public Class<" + targetType + "> getTargetClass() {\n        return " + targetType + ".class;\n    }\n\n");
+            writer.write("    public String[] getBusinessNames() {\n        return new String[] {" + literals + "};\n    }\n\n");
+            writer.write("    public void map(" + sourceType + " source, " + targetType + " target, " + FieldFormatter.class.getName() + "[] formatters) {\n");
+            writer.write("        " + FieldFormatter.class.getName() + " formatter = null;\n");
+            writer.write(copies.toString());
+            writer.write("    }\n}\n");
+        }
+        mappers.add(packageName.isEmpty() ? simpleName : packageName + "." + simpleName);
+    }
+
+    /**
+     * @param index position of the field's formatter among those passed to the mapper
+     * @return the statements copying one field or <code>null</code> if the fields cannot be reached
+     */
+    private String generateCopy(int index, VariableElement sourceField, VariableElement targetField, String packageName) {
+        String read = getReader(sourceField, packageName);
+        String write = getWriter(targetField, packageName);
+        if (read == null || write == null)
+            return null;
+
+        TypeMirror sourceType = sourceField.asType();
+        TypeMirror targetType = targetField.asType();
+        String boxedTarget = targetType.getKind().isPrimitive() ?
+                processingEnv.getTypeUtils().boxedClass((PrimitiveType) targetType).getQualifiedName().toString() :
+                targetType.toString();
+
+        StringBuilder copy = new StringBuilder();
+        copy.append("        formatter = formatters[").append(index).append("];\n");
+
+        // primitive formatters are called without boxing when the field types fit them exactly...
+        String[] primitive = getPrimitiveFormatter(sourceType, targetType);
+        if (primitive != null) {
+            String specialized = FieldFormatter.class.getName() + "." + primitive[0];
+            copy.append("        if (formatter instanceof ").append(specialized).append(")\n");
+            copy.append("            ").append(String.format(write, "((" + specialized + ") formatter)." + primitive[1] + "(" + String.format(read, "source") + ")")).append(";\n");
+            copy.append("        else if (formatter != null)\n");
+        } else
+            copy.append("        if (formatter != null)\n");
+        copy.append("            ").append(String.format(write, "(" + boxedTarget + ") formatter.format(" + String.format(read, "source") + ")")).append(";\n");
+        copy.append("        else\n");
+        if (processingEnv.getTypeUtils().isAssignable(sourceType, targetType))
+            copy.append("            ").append(String.format(write, String.format(read, "source"))).append(";\n");
+        else
+            copy.append("            throw new IllegalArgumentException(\"Can not set ").append(targetType).append(" field ")
+                    .append(targetField.getSimpleName()).append(" to ").append(sourceType).append("\");\n");
+        return copy.toString();
+    }
+
+    /**
+     * @return the name of the nested FieldFormatter interface that fits the field types and its method or
+     * <code>null</code> if none does
+     */
+    private static String[] getPrimitiveFormatter(TypeMirror sourceType, TypeMirror targetType) {
+        TypeKind kind = targetType.getKind();
+        if (kind != TypeKind.INT && kind != TypeKind.LONG && kind != TypeKind.DOUBLE && kind != TypeKind.BOOLEAN)
+            return null;
+        String type = capitalize(kind.name().toLowerCase());
+        if (sourceType.getKind() == kind)
+            return new String[] {"Of" + type, "format" + type};
+        return kind == TypeKind.BOOLEAN ? null : new String[] {"To" + type, "formatTo" + type};
+    }
+
+    /**
+     * @return format reading the field from the object named by the argument or <code>null</code> if not readable
+     */
+    private String getReader(VariableElement field, String packageName) {
+        if (isAccessible(field, packageName))
+            return "%s." + field.getSimpleName();
+        String capitalized = capitalize(field.getSimpleName().toString());
+        for (ExecutableElement method : getMethods(field)) {
+            String methodName = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty() && isAccessible(method, packageName) &&
+                    processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType()) &&
+                    (methodName.equals("get" + capitalized) || (methodName.equals("is" + capitalized) && field.asType().getKind() == TypeKind.BOOLEAN)))
+                return "%s." + methodName + "()";
+        }
+        return null;
+    }
+
+    /**
+     * @return format writing the argument to the target field or <code>null</code> if not writable
+     */
+    private String getWriter(VariableElement field, String packageName) {
+        if (isAccessible(field, packageName) && !field.getModifiers().contains(Modifier.FINAL))
+            return "target." + field.getSimpleName() + " = %s";
+        String setter = "set" + capitalize(field.getSimpleName().toString());
+        for (ExecutableElement method : getMethods(field)) {
+            if (method.getSimpleName().toString().equals(setter) && method.getParameters().size() == 1 && isAccessible(method, packageName) &&
+                    processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), field.asType()))
+                return "target." + setter + "(%s)";
+        }
+        return null;
+    }
+
+    private List<ExecutableElement> getMethods(VariableElement field) {
+        return ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers((TypeElement) field.getEnclosingElement()));
+    }
+
+    /**
+     * @return <code>null</code> if the class can take part in a generated mapper otherwise the reason it cannot
+     */
+    private String checkClass(TypeElement type, String packageName) {
+        if (type.getAnnotation(NamedClass.class) == null)
+            return type.getSimpleName() + " is not a named class";
+        if (type.getAnnotation(NamedClassComposite.class) != null)
+            return type.getSimpleName() + " is a composite";
+        for (Element e = type; !(e instanceof PackageElement); e = e.getEnclosingElement()) {
+            if (!isAccessible(e, packageName))
+                return type.getSimpleName() + " is not accessible";
+            if (!(e.getEnclosingElement() instanceof PackageElement) && !e.getModifiers().contains(Modifier.STATIC))
+                return type.getSimpleName() + " is an inner class";
+        }
+        return null;
+    }
+
+    /**
+     * Named fields in the order Cartographer sees them (the class' own fields then its ancestors') keeping only the
+     * first field of each name since that is the one the name matching copies.
+     *
+     * @return business name to field
+     */
+    private Map<String, VariableElement> getNamedFields(TypeElement type) {
+        Map<String, VariableElement> fields = new LinkedHashMap<>();
+        for (TypeElement t = type; t != null; ) {
+            for (VariableElement field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+                NamedField annotation = field.getAnnotation(NamedField.class);
+                if (annotation != null && !fields.containsKey(annotation.name()))
+                    fields.put(annotation.name(), field);
+            }
+            TypeMirror parent = t.getSuperclass();
+            t = parent.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) parent).asElement() : null;
+        }
+        return fields;
+    }
+
+    /**
+     * Terminal types are decided by the same immutable types Cartographer uses at runtime.
+     *
+     * @param type declared type of a named field
+     * @return <code>true</code> if the type is terminal
+     */
+    private boolean isTerminal(TypeMirror type) {
+        if (type.getKind().isPrimitive())
+            return true;
+        if (type.getKind() != TypeKind.DECLARED)
+            return false;
+        TypeElement element = (TypeElement) processingEnv.getTypeUtils().asElement(type);
+        if (element.getKind() == ElementKind.ENUM)
+            return true;
+        try {
+            String name = processingEnv.getElementUtils().getBinaryName(element).toString();
+            return NameUtils.isImmutable(Class.forName(name, false, getClass().getClassLoader()));
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private boolean isAccessible(Element element, String packageName) {
+        Set<Modifier> modifiers = element.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE))
+            return false;
+        if (modifiers.contains(Modifier.PUBLIC))
+            return true;
+        return packageName.equals(processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString());
+    }
+
+    private String binarySimpleName(TypeElement type) {
+        String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+        return name.substring(name.lastIndexOf('.') + 1).replace('$', '_');
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static List<VariableElement> concat(Map<String, VariableElement> first, Map<String, VariableElement> second) {
+        List<VariableElement> fields = new ArrayList<>(first.values());
+        fields.addAll(second.values());
+        return fields;
+    }
+
+    private void warn(TypeElement source, TypeElement target, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                "No mapper generated from " + source.getQualifiedName() + " to " + target.getQualifiedName() + ": " + reason, source);
+    }
+
+    /**
+     * Register the generated mappers with the ServiceLoader keeping whatever an earlier compile registered.
+     */
+    private void writeServiceFile() {
+        if (mappers.isEmpty())
+            return;
+        Set<String> services = new TreeSet<>(mappers);
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine())
+                    if (!line.trim().isEmpty())
+                        services.add(line.trim());
+            }
+        } catch (IOException e) {
+            // nothing registered yet...
+        }
+
+        try (Writer writer = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE).openWriter()) {
+            for (String service : services)
+                writer.write(service + "\n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not register mappers: " + e.getMessage());
+        }
+    }
+}
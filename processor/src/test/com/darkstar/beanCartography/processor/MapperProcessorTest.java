@@ -0,0 +1,153 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.processor;
+
+import com.darkstar.beanCartography.Cartographer;
+import com.darkstar.beanCartography.GeneratedMapper;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author michael snavely
+ */
+public class MapperProcessorTest {
+
+    private static final String CUSTOMER =
+            "package gen;\n" +
+            "import com.darkstar.beanCartography.annotations.*;\n" +
+            "@NamedClass(name = \"Customer\")\n" +
+            "@NamedClassMapper(targets = {Invoice.class, String.class})\n" +
+            "public class Customer {\n" +
+            "    @NamedField(name = \"FirstName\") private String firstName;\n" +
+            "    @NamedField(name = \"Visits\") private int visits;\n" +
+            "    @NamedField(name = \"Secret\") private String secret = \"secret\";\n" +
+            "    public Customer(String firstName, int visits) { this.firstName = firstName; this.visits = visits; }\n" +
+            "    public String getFirstName() { return firstName; }\n" +
+            "    public int getVisits() { return visits; }\n" +
+            "}\n";
+
+    private static final String INVOICE =
+            "package gen;\n" +
+            "import com.darkstar.beanCartography.annotations.*;\n" +
+            "@NamedClass(name = \"Invoice\")\n" +
+            "public class Invoice {\n" +
+            "    @NamedField(name = \"FirstName\") private String name;\n" +
+            "    @NamedField(name = \"Visits\") long visits;\n" +
+            "    public String getName() { return name; }\n" +
+            "    public void setName(String name) { this.name = name; }\n" +
+            "    public long getVisits() { return visits; }\n" +
+            "}\n";
+
+    @Test
+    public void generatedMapperTest() throws Exception {
+        Path sources = Files.createTempDirectory("mapper-sources");
+        Path classes = Files.createTempDirectory("mapper-classes");
+        Files.createDirectories(sources.resolve("gen"));
+        Files.write(sources.resolve("gen/Customer.java"), CUSTOMER.getBytes(StandardCharsets.UTF_8));
+        Files.write(sources.resolve("gen/Invoice.java"), INVOICE.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+        // the processor is found through its registration on the class path, not named here...
+        List<String> options = Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"),
+                "-s", sources.toString(),
+                "-d", classes.toString());
+        Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(
+                sources.resolve("gen/Customer.java").toFile(), sources.resolve("gen/Invoice.java").toFile());
+        boolean compiled = compiler.getTask(null, fileManager, diagnostics, options, null, units).call();
+        fileManager.close();
+        assertTrue(diagnostics.getDiagnostics().toString(), compiled);
+
+        // the pair with a class that is not named only gets a warning...
+        List<String> warnings = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics())
+            if (diagnostic.getKind() == Diagnostic.Kind.WARNING)
+                warnings.add(diagnostic.getMessage(null));
+        assertThat(warnings.size(), equalTo(1));
+        assertTrue(warnings.get(0).startsWith("No mapper generated from gen.Customer to java.lang.String"));
+        assertTrue(new File(classes.toFile(), "gen/CustomerToInvoiceMapper.class").exists());
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> customerClass = loader.loadClass("gen.Customer");
+            Class<?> invoiceClass = loader.loadClass("gen.Invoice");
+
+            List<GeneratedMapper<?, ?>> mappers = new ArrayList<>();
+            for (GeneratedMapper<?, ?> mapper : ServiceLoader.load(GeneratedMapper.class, loader))
+                mappers.add(mapper);
+            assertThat(mappers.size(), equalTo(1));
+            assertTrue(mappers.get(0).getSourceClass() == customerClass);
+            assertTrue(mappers.get(0).getTargetClass() == invoiceClass);
+
+            // a registration that cannot be loaded does not cost the ones after it...
+            Path services = classes.resolve("META-INF/services/" + GeneratedMapper.class.getName());
+            List<String> registrations = new ArrayList<>(Files.readAllLines(services, StandardCharsets.UTF_8));
+            registrations.add(0, "gen.NoSuchMapper");
+            Files.write(services, registrations, StandardCharsets.UTF_8);
+
+            // the formatter looks at who calls it to prove the generated mapper did the copy...
+            List<String> callers = new ArrayList<>();
+            Object customer = customerClass.getConstructor(String.class, int.class).newInstance("Joe", 7);
+            Object invoice = invoiceClass.getDeclaredConstructor().newInstance();
+            Cartographer mapper = new Cartographer();
+            mapper.addFieldFormatter("FirstName", obj -> {
+                callers.add(new Throwable().getStackTrace()[1].getClassName());
+                return obj.toString().toUpperCase();
+            });
+            mapper.mapObject(customer, invoice);
+
+            assertThat(invoiceClass.getMethod("getName").invoke(invoice), equalTo((Object) "JOE"));
+            assertThat(invoiceClass.getMethod("getVisits").invoke(invoice), equalTo((Object) 7L));
+            assertThat(callers, equalTo(Arrays.asList("gen.CustomerToInvoiceMapper")));
+
+            // ...and a formatter failing there fails the mapping rather than being swallowed...
+            Cartographer failing = new Cartographer();
+            failing.addFieldFormatter("FirstName", obj -> {
+                throw new IllegalStateException("bad name");
+            });
+            try {
+                failing.mapObject(customer, invoiceClass.getDeclaredConstructor().newInstance());
+                fail("formatter failure was swallowed");
+            } catch (IllegalStateException e) {
+                assertThat(e.getMessage(), equalTo("bad name"));
+            }
+        }
+    }
+}
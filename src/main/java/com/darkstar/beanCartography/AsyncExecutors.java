@@ -0,0 +1,66 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class holds the executor asynchronous mappings run on when no other executor is given.  Mappings may call
+ * field formatters that block, so every mapping gets a thread of its own: a virtual thread when the runtime has them
+ * (Java 21 and up) and otherwise a daemon thread from a cached pool.  The virtual thread executor is looked up by
+ * reflection so the library still runs on Java 11.
+ *
+ * @author michael snavely
+ */
+class AsyncExecutors {
+
+    private static final ExecutorService DEFAULT = create();
+
+    private AsyncExecutors() {
+        super();
+    }
+
+    /**
+     * @return the executor to run asynchronous mappings on by default
+     */
+    static Executor getDefault() {
+        return DEFAULT;
+    }
+
+    private static ExecutorService create() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // no (usable) virtual threads on this runtime so fall back to platform threads...
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "cartographer-async-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+}
@@ -17,30 +17,308 @@
  */
 package com.darkstar.beanCartography;
 
+import com.darkstar.beanCartography.utils.ClassMetadata;
+import com.darkstar.beanCartography.utils.GenericTypes;
 import com.darkstar.beanCartography.utils.NameUtils;
 import com.darkstar.beanCartography.utils.finder.Filter;
 import com.darkstar.beanCartography.utils.finder.Finder;
+import com.google.common.base.Preconditions;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
+ * This class copies the named fields of a source object graph to the named fields of a target object graph.
+ * <p>
+ * A Cartographer is safe to share between any number of threads calling mapObject at the same time.  The mapping
+ * plans it learns are kept per instance so sharing one instance process wide means every thread benefits from them.
+ * Instances made by the Builder are immutable: collection copying, plan compiling, pruning, and formatters are all
+ * fixed at build time.  Instances made by the constructors still allow formatters to be added.
+ *
  *  @author michael snavely
  */
 public class Cartographer {
 
-    private boolean copyCollections = false;
+    // the number of different graph shapes we are willing to keep plans for per source and target class pair...
+    private static final int MAX_PLANS_PER_CLASS_PAIR = 16;
+
+    // the plan key of class pairs that are both flat...
+    private static final String FLAT_SHAPE = "";
+
+    // parallel batches are split into about this many chunks per thread but never into chunks smaller than this...
+    private static final int CHUNKS_PER_THREAD  = 4;
+    private static final int MIN_PARALLEL_CHUNK = 64;
+
+    private final boolean copyCollections;
+    private final boolean pruneUnreachable;
+    private final boolean preserveIdentity;
+    private final boolean targetDriven;
+    private final boolean lazySource;
+    private final boolean immutable;
+
+    // runs mapObjectAsync when no executor is given...
+    private final Executor asyncExecutor;
+
+    // creates the target collections, maps, and arrays copied into...
+    private final ContainerFactory containerFactory;
+
+    // field formatters by business name and field types...
+    private final FormatterRegistry fieldFormatters;
+
+    // copies the named fields plans cannot copy directly (one copier for all of them rather than one per call)...
+    private final MappingPlan.FieldCopier fieldCopier = this::copyFieldContents;
+
+    // source to target instances of the mapping running on each thread when identity is preserved...
+    private final ThreadLocal<Map<Object, Object>> identities = new ThreadLocal<>();
+
+    // source class to target class to what has been learned about mapping them...
+    private final Map<Class<?>, Map<Class<?>, ClassPair>> classPairs = new ConcurrentHashMap<>();
+
+    // copies between terminal fields set up as of the current version of the formatters...
+    private volatile TerminalCopies terminalCopies = null;
+
+    /**
+     * Everything learned about mapping one source class to one target class: the generated mapper (if any) and the
+     * mapping plans keyed by graph shape.  A pair of flat classes (named fields all terminal, see GeneratedMappers)
+     * only ever has one shape.
+     */
+    private static class ClassPair {
+        private final Class<?> sourceClass;
+        private final Class<?> targetClass;
+        private final GeneratedMapper<Object, Object> generated;
+        private final boolean flat;
+        private final Map<String, MappingPlan> plans = new ConcurrentHashMap<>();
+        private volatile ResolvedFormatters generatedFormatters = null;
+        private volatile NameFilter sourceFilter = null;
+
+        private ClassPair(Class<?> sourceClass, Class<?> targetClass) {
+            this.sourceClass = sourceClass;
+            this.targetClass = targetClass;
+            this.generated = GeneratedMappers.find(sourceClass, targetClass);
+            this.flat = GeneratedMappers.isFlat(sourceClass) && GeneratedMappers.isFlat(targetClass);
+        }
+
+        private boolean matches(Object sourceObj, Object targetObj) {
+            return sourceClass == sourceObj.getClass() && targetClass == targetObj.getClass();
+        }
+
+        /**
+         * Targets of the pair usually need the same names so the filter (and what it has learned about the source
+         * types) is kept until the names change.
+         *
+         * @param names business names the target needs
+         * @return filter searching the source for the names
+         */
+        private NameFilter getSourceFilter(Set<String> names) {
+            NameFilter filter = sourceFilter;
+            if (filter == null || !filter.getNames().equals(names))
+                sourceFilter = filter = new NameFilter(names);
+            return filter;
+        }
+
+        /**
+         * The generated mapper only knows business names so resolve the formatter of each of its names against the
+         * field types of this pair once (and again whenever a formatter is added).
+         *
+         * @param registry formatters to resolve from
+         * @return the formatter of each of the generated mapper's copies in the order of its business names
+         */
+        private FieldFormatter[] getGeneratedFormatters(FormatterRegistry registry) {
+            ResolvedFormatters resolved = generatedFormatters;
+            int version = registry.getVersion();
+            if (resolved != null && resolved.version == version)
+                return resolved.formatters;
+
+            String[] names = generated.getBusinessNames();
+            FieldFormatter[] formatters = new FieldFormatter[names.length];
+            for (int i = 0; i < names.length; i++) {
+                ClassMetadata.FieldMetadata sourceField = getNamedField(sourceClass, names[i]);
+                ClassMetadata.FieldMetadata targetField = getNamedField(targetClass, names[i]);
+                if (sourceField != null && targetField != null)
+                    formatters[i] = registry.resolve(names[i], sourceField.getField().getType(), targetField.getField().getType());
+            }
+            generatedFormatters = new ResolvedFormatters(version, formatters);
+            return formatters;
+        }
+
+        /**
+         * @return the first named field of the class having the business name or <code>null</code> if there is none
+         */
+        private static ClassMetadata.FieldMetadata getNamedField(Class<?> clazz, String businessName) {
+            for (ClassMetadata.FieldMetadata field : ClassMetadata.of(clazz).getNamedFields())
+                if (field.getBusinessName().equals(businessName))
+                    return field;
+            return null;
+        }
+    }
 
-    // business field name to field formatter map...
-    private final Map<String, FieldFormatter> fieldFormatters = new HashMap<>();
+    /**
+     * Formatters resolved as of a version of the registry.
+     */
+    private static class ResolvedFormatters {
+        private final int version;
+        private final FieldFormatter[] formatters;
+
+        private ResolvedFormatters(int version, FieldFormatter[] formatters) {
+            this.version = version;
+            this.formatters = formatters;
+        }
+    }
+
+    /**
+     * The copy between each pair of terminal fields (target field to source field to copy) with the formatter resolved
+     * as of a version of the registry.
+     */
+    private static class TerminalCopies {
+        private final int version;
+        private final Map<ClassMetadata.FieldMetadata, Map<ClassMetadata.FieldMetadata, MappingPlan.DirectCopy>> copies = new ConcurrentHashMap<>();
+
+        private TerminalCopies(int version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * This is used to configure an immutable Cartographer.
+     *
+     * @author michael snavely
+     */
+    public static class Builder {
+        private boolean copyCollections  = false;
+        private boolean pruneUnreachable = true;
+        private boolean preserveIdentity = false;
+        private boolean targetDriven     = false;
+        private boolean lazySource       = false;
+        private Executor asyncExecutor   = null;
+        private ContainerFactory containerFactory = null;
+        private final FormatterRegistry fieldFormatters = new FormatterRegistry();
+
+        public Builder() {
+            super();
+        }
+
+        /**
+         * @param copyCollections set to <code>true</code> if collections, maps, and arrays should be copied
+         */
+        public Builder copyCollections(boolean copyCollections) {
+            this.copyCollections = copyCollections;
+            return this;
+        }
+
+        /**
+         * @param pruneUnreachable set to <code>false</code> to search every object of a graph even when it can never
+         *                         lead to a business name (this also turns off mapping plans)
+         */
+        public Builder pruneUnreachable(boolean pruneUnreachable) {
+            this.pruneUnreachable = pruneUnreachable;
+            return this;
+        }
+
+        /**
+         * @param preserveIdentity set to <code>true</code> if a source object reached more than once while copying
+         *                         collections, maps, and arrays should be mapped once and its target reused (this
+         *                         also lets cyclic graphs be copied)
+         */
+        public Builder preserveIdentity(boolean preserveIdentity) {
+            this.preserveIdentity = preserveIdentity;
+            return this;
+        }
+
+        /**
+         * @param targetDriven set to <code>true</code> if the named fields declared by the target class should drive
+         *                     the mapping instead of a walk of the target (missing nested targets are then created
+         *                     when something is copied into them)
+         */
+        public Builder targetDriven(boolean targetDriven) {
+            this.targetDriven = targetDriven;
+            return this;
+        }
+
+        /**
+         * @param lazySource set to <code>true</code> if only the source fields having names the target needs (and the
+         *                   objects leading to them) should be read while matching names
+         */
+        public Builder lazySource(boolean lazySource) {
+            this.lazySource = lazySource;
+            return this;
+        }
+
+        /**
+         * @param asyncExecutor executor mapObjectAsync runs on (defaults to a thread per mapping, virtual if possible)
+         */
+        public Builder asyncExecutor(Executor asyncExecutor) {
+            this.asyncExecutor = Preconditions.checkNotNull(asyncExecutor, "asyncExecutor cannot be null");
+            return this;
+        }
+
+        /**
+         * @param containerFactory creates the target collections, maps, and arrays copied into when the target does
+         *                         not have one (defaults to a {@link DefaultContainerFactory})
+         */
+        public Builder containerFactory(ContainerFactory containerFactory) {
+            this.containerFactory = Preconditions.checkNotNull(containerFactory, "containerFactory cannot be null");
+            return this;
+        }
+
+        /**
+         * @param businessFieldName name to associate to the formatter
+         * @param f formatter to use
+         */
+        public Builder fieldFormatter(String businessFieldName, FieldFormatter f) {
+            fieldFormatters.add(businessFieldName, f);
+            return this;
+        }
+
+        /**
+         * @param businessFieldName name to associate to the formatter
+         * @param sourceType type of the source field
+         * @param targetType type of the target field
+         * @param f formatter to use when copying between fields of these types (wins over a formatter for the name alone)
+         */
+        public Builder fieldFormatter(String businessFieldName, Class<?> sourceType, Class<?> targetType, FieldFormatter f) {
+            fieldFormatters.add(businessFieldName, sourceType, targetType, f);
+            return this;
+        }
+
+        /**
+         * @param sourceType type of the source field
+         * @param targetType type of the target field
+         * @param f formatter to use for every field of these types that has no formatter of its own
+         */
+        public Builder converter(Class<?> sourceType, Class<?> targetType, FieldFormatter f) {
+            fieldFormatters.addConverter(sourceType, targetType, f);
+            return this;
+        }
+
+        /**
+         * @param map containing names to formatter mappings
+         */
+        public Builder fieldFormatters(Map<String, FieldFormatter> map) {
+            map.forEach(this::fieldFormatter);
+            return this;
+        }
+
+        public Cartographer build() {
+            return new Cartographer(this);
+        }
+    }
 
     /**
      * Constructor
      */
     public Cartographer() {
-        super();
+        this(false);
     }
 
     /**
@@ -51,23 +329,80 @@ public class Cartographer {
     public Cartographer(boolean copyCollections) {
         super();
         this.copyCollections = copyCollections;
+        this.pruneUnreachable = true;
+        this.preserveIdentity = false;
+        this.targetDriven = false;
+        this.lazySource = false;
+        this.immutable = false;
+        this.asyncExecutor = AsyncExecutors.getDefault();
+        this.containerFactory = new DefaultContainerFactory();
+        this.fieldFormatters = new FormatterRegistry();
+    }
+
+    /**
+     * Cartographer constructor from builder
+     *
+     * @param builder
+     */
+    private Cartographer(Builder builder) {
+        super();
+        this.copyCollections = builder.copyCollections;
+        this.pruneUnreachable = builder.pruneUnreachable;
+        this.preserveIdentity = builder.preserveIdentity;
+        this.targetDriven = builder.targetDriven;
+        this.lazySource = builder.lazySource;
+        this.immutable = true;
+        this.asyncExecutor = builder.asyncExecutor != null ? builder.asyncExecutor : AsyncExecutors.getDefault();
+        this.containerFactory = builder.containerFactory != null ? builder.containerFactory : new DefaultContainerFactory();
+        this.fieldFormatters = builder.fieldFormatters.immutableCopy();
     }
 
     /**
      * @param businessFieldName name to associate to the formatter
      * @param f formatter to use
+     * @throws IllegalStateException if this Cartographer was made by a Builder
+     */
+    public void addFieldFormatter(String businessFieldName, FieldFormatter f) {
+        Preconditions.checkState(!immutable, "Cartographer was built immutable");
+        fieldFormatters.add(businessFieldName, f);
+    }
+
+    /**
+     * @param businessFieldName name to associate to the formatter
+     * @param sourceType type of the source field
+     * @param targetType type of the target field
+     * @param f formatter to use when copying between fields of these types (wins over a formatter for the name alone)
+     * @throws IllegalStateException if this Cartographer was made by a Builder
      */
-    public void addFieldFormatter(String businessFieldName, FieldFormatter f) {fieldFormatters.put(businessFieldName, f);}
+    public void addFieldFormatter(String businessFieldName, Class<?> sourceType, Class<?> targetType, FieldFormatter f) {
+        Preconditions.checkState(!immutable, "Cartographer was built immutable");
+        fieldFormatters.add(businessFieldName, sourceType, targetType, f);
+    }
+
+    /**
+     * @param sourceType type of the source field
+     * @param targetType type of the target field
+     * @param f formatter to use for every field of these types that has no formatter of its own
+     * @throws IllegalStateException if this Cartographer was made by a Builder
+     */
+    public void addConverter(Class<?> sourceType, Class<?> targetType, FieldFormatter f) {
+        Preconditions.checkState(!immutable, "Cartographer was built immutable");
+        fieldFormatters.addConverter(sourceType, targetType, f);
+    }
 
     /**
      * @param map containing names to formatter mappings
+     * @throws IllegalStateException if this Cartographer was made by a Builder
      */
     public void addFieldFormatter(Map<String, FieldFormatter> map) {
-        fieldFormatters.putAll(map);
+        map.forEach(this::addFieldFormatter);
     }
 
     /**
-     * This is the main processing method.
+     * This is the main processing method.  Class pairs having a generated mapper are copied by it.  Otherwise the
+     * first time a source and target graph shape is seen the names are matched and the resulting copies are recorded
+     * into a mapping plan.  From then on graphs of the same shape just replay the plan.  Graphs that cannot be
+     * described by their named fields alone are always matched from scratch.
      *
      * @param sourceObj object containing named field values to copy
      * @param targetObj object that will serve as the target of the copy
@@ -78,25 +413,254 @@ public class Cartographer {
         if (targetObj == null)
             throw new IllegalArgumentException("targetObj cannot be null");
 
-        Finder walker = new Finder();
+        process(sourceObj, targetObj, getClassPair(sourceObj.getClass(), targetObj.getClass()));
+    }
 
-        // map the source object...
-        Filter businessNameFilter = new NameFilter();
-        NameInterceptor intercepter = new NameInterceptor();
-        walker.addFilterIntecepter(businessNameFilter, intercepter);
+    /**
+     * @param sourceObj object containing named field values to copy
+     * @param targetObj object that will serve as the target of the copy
+     * @param pair what is known about mapping the classes of the objects
+     */
+    private void process(Object sourceObj, Object targetObj, ClassPair pair) {
+        // elements of collections, maps, and arrays are processed while their container is...
+        if (!preserveIdentity || identities.get() != null) {
+            processPair(sourceObj, targetObj, pair);
+            return;
+        }
 
-        walker.find(sourceObj);
-        Map<String, List<NamedClassBean>> sourceMap = intercepter.getNameToBusinessClassMap();
+        Map<Object, Object> mapped = new IdentityHashMap<>();
+        mapped.put(sourceObj, targetObj);
+        identities.set(mapped);
+        try {
+            processPair(sourceObj, targetObj, pair);
+        } finally {
+            identities.remove();
+        }
+    }
+
+    /**
+     * @param sourceObj object containing named field values to copy
+     * @param targetObj object that will serve as the target of the copy
+     * @param pair what is known about mapping the classes of the objects
+     */
+    private void processPair(Object sourceObj, Object targetObj, ClassPair pair) {
+        if (!fieldFormatters.hasSourceFormatters()) {
+            mapPair(sourceObj, targetObj, pair);
+            return;
+        }
+
+        // formatters wanting the source index get one searched out the first time one of them asks...
+        Supplier<NameIndex> previous = NameIndex.enter(NameIndex.lazilyOf(sourceObj, true));
+        try {
+            mapPair(sourceObj, targetObj, pair);
+        } finally {
+            NameIndex.exit(previous);
+        }
+    }
+
+    /**
+     * @param sourceObj object containing named field values to copy
+     * @param targetObj object that will serve as the target of the copy
+     * @param pair what is known about mapping the classes of the objects
+     */
+    private void mapPair(Object sourceObj, Object targetObj, ClassPair pair) {
+        // a mapper generated at compile time beats anything we can do here...
+        if (pair.generated != null) {
+            pair.generated.map(sourceObj, targetObj, pair.getGeneratedFormatters(fieldFormatters));
+            return;
+        }
+
+        // shapes only describe what a pruning search sees...
+        if (!pruneUnreachable) {
+            find(sourceObj, targetObj, pair);
+            return;
+        }
+
+        // the target class may be able to stand in for the target...
+        if (targetDriven && processLayout(sourceObj, targetObj, pair))
+            return;
+
+        // flat classes always have the same shape so there is no need to work it out (or even to take it once the
+        // plan is known)...
+        GraphShape sourceShape;
+        GraphShape targetShape;
+        String shape;
+        if (pair.flat) {
+            MappingPlan plan = pair.plans.get(FLAT_SHAPE);
+            if (plan != null) {
+                plan.applyFlat(sourceObj, targetObj, fieldFormatters, fieldCopier);
+                return;
+            }
+            sourceShape = GraphShape.ofFlat(sourceObj);
+            targetShape = GraphShape.ofFlat(targetObj);
+            shape = FLAT_SHAPE;
+        } else {
+            sourceShape = GraphShape.of(sourceObj, true);
+            targetShape = sourceShape == null ? null : GraphShape.of(targetObj, false);
+            if (targetShape == null) {
+                find(sourceObj, targetObj, pair);
+                return;
+            }
+            shape = sourceShape.getSignature() + '|' + targetShape.getSignature();
+        }
+
+        Map<String, MappingPlan> plans = pair.plans;
+
+        MappingPlan plan = plans.get(shape);
+        if (plan != null) {
+            plan.apply(sourceShape, targetShape, fieldFormatters, fieldCopier);
+            return;
+        }
+        if (plans.size() >= MAX_PLANS_PER_CLASS_PAIR) {
+            find(sourceObj, targetObj, pair);
+            return;
+        }
 
-        walker = new Finder(false, false, false);
+        // match the names and record what gets copied...
+        MappingPlan.Recorder recorder = new MappingPlan.Recorder(sourceShape, targetShape, fieldCopier);
+        Map<String, List<NamedClassBean>> targetMap = getNameMap(targetShape, null);
+        resolve(new NameIndex(getNameMap(sourceShape, lazySource ? getRequiredNames(targetMap) : null)), targetMap, recorder);
+        plan = recorder.toPlan();
+        if (plan != null)
+            plans.putIfAbsent(shape, plan);
+    }
+
+    /**
+     * Map using the layout of the target class instead of the shape of the target.  The names are matched once per
+     * source shape against a new target having every nested target in place, without copying anything, and the
+     * recorded plan is then replayed against the real target.  Nested targets are only looked up (or created when
+     * missing) as the plan copies into them.
+     *
+     * @param sourceObj object containing named field values to copy
+     * @param targetObj object that will serve as the target of the copy
+     * @param pair what is known about mapping the classes of the objects
+     * @return <code>false</code> if nothing was copied because the target has to be walked after all
+     */
+    private boolean processLayout(Object sourceObj, Object targetObj, ClassPair pair) {
+        TargetLayout layout = TargetLayout.of(pair.targetClass);
+        GraphShape targetShape = layout == null ? null : layout.of(targetObj);
+        if (targetShape == null)
+            return false;
+        GraphShape sourceShape = pair.flat ? GraphShape.ofFlat(sourceObj) : GraphShape.of(sourceObj, true);
+        if (sourceShape == null)
+            return false;
+
+        String shape = sourceShape.getSignature() + '|' + TargetLayout.SIGNATURE;
+        MappingPlan plan = pair.plans.get(shape);
+        if (plan == null) {
+            if (pair.plans.size() >= MAX_PLANS_PER_CLASS_PAIR)
+                return false;
+            GraphShape graph;
+            try {
+                graph = layout.newGraph();
+            } catch (ReflectiveOperationException e) {
+                return false;
+            }
+            MappingPlan.Recorder recorder = new MappingPlan.Recorder(sourceShape, graph, (targetInstance, targetNameBean, sourceNameBean) -> {});
+            Map<String, List<NamedClassBean>> targetMap = getNameMap(graph, null);
+            resolve(new NameIndex(getNameMap(sourceShape, lazySource ? getRequiredNames(targetMap) : null)), targetMap, recorder);
+            plan = recorder.toPlan();
+            if (plan == null)
+                return false;
+            MappingPlan recorded = pair.plans.putIfAbsent(shape, plan);
+            if (recorded != null)
+                plan = recorded;
+        }
+
+        plan.apply(sourceShape, targetShape, fieldFormatters, fieldCopier);
+        return true;
+    }
+
+    /**
+     * Match the names by walking the complete source and target object graphs.  When the source is read lazily the
+     * target is walked first and the source walk only follows and reads what leads to the names the target needs.
+     *
+     * @param sourceObj object containing named field values to copy
+     * @param targetObj object that will serve as the target of the copy
+     * @param pair what is known about mapping the classes of the objects
+     */
+    private void find(Object sourceObj, Object targetObj, ClassPair pair) {
         // map the target object...
-        businessNameFilter = new NameFilter();
-        intercepter = new NameInterceptor();
+        Finder walker = new Finder(false, false, false, pruneUnreachable);
+        Filter businessNameFilter = new NameFilter();
+        NameInterceptor intercepter = new NameInterceptor();
         walker.addFilterIntecepter(businessNameFilter, intercepter);
 
         walker.find(targetObj);
         Map<String, List<NamedClassBean>> targetMap = intercepter.getNameToBusinessClassMap();
 
+        // map the source object...
+        walker = new Finder(true, true, true, pruneUnreachable);
+        if (lazySource) {
+            Set<String> names = getRequiredNames(targetMap);
+            businessNameFilter = pair.getSourceFilter(names);
+            intercepter = new NameInterceptor(names);
+        } else {
+            businessNameFilter = new NameFilter();
+            intercepter = new NameInterceptor();
+        }
+        walker.addFilterIntecepter(businessNameFilter, intercepter);
+
+        walker.find(sourceObj);
+        NameIndex sourceIndex = new NameIndex(intercepter.getNameToBusinessClassMap());
+
+        // a complete search of the source is just what formatters wanting the source index need...
+        if (lazySource || !fieldFormatters.hasSourceFormatters()) {
+            resolve(sourceIndex, targetMap, fieldCopier);
+            return;
+        }
+        Supplier<NameIndex> previous = NameIndex.enter(() -> sourceIndex);
+        try {
+            resolve(sourceIndex, targetMap, fieldCopier);
+        } finally {
+            NameIndex.exit(previous);
+        }
+    }
+
+    /**
+     * Build the name map for the named objects of a graph shape.
+     *
+     * @param shape graph shape
+     * @param fieldNames business names of the fields to read or <code>null</code> for all of them
+     * @return map of business name to named class beans
+     */
+    private static Map<String, List<NamedClassBean>> getNameMap(GraphShape shape, Set<String> fieldNames) {
+        Filter businessNameFilter = new NameFilter();
+        NameInterceptor intercepter = new NameInterceptor(fieldNames);
+        shape.getNodes().stream()
+                .filter(businessNameFilter::accept)
+                .forEach(intercepter::intercept);
+        return intercepter.getNameToBusinessClassMap();
+    }
+
+    /**
+     * The target drives the matching so a source name only matters if the target has it: as a class name, a
+     * composite name, or a field name.
+     *
+     * @param targetMap map of target name beans
+     * @return business names the target needs from the source
+     */
+    private static Set<String> getRequiredNames(Map<String, List<NamedClassBean>> targetMap) {
+        Set<String> names = new HashSet<>(targetMap.keySet());
+        for (List<NamedClassBean> beans : targetMap.values()) {
+            for (NamedClassBean bean : beans) {
+                if (NameUtils.hasBusinessComposites(bean.getClazz()))
+                    names.addAll(Arrays.asList(NameUtils.getBusinessComposites(bean.getClazz())));
+                for (NamePointerBean field : bean.getFields())
+                    names.add(field.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Match the source names to the target names and copy the matching fields.
+     *
+     * @param sourceIndex index of the source name beans
+     * @param targetMap map of target name beans
+     * @param copier copier to use for each matching field
+     */
+    private void resolve(NameIndex sourceIndex, Map<String, List<NamedClassBean>> targetMap, MappingPlan.FieldCopier copier) {
         /*
          * now attend to the business of matching and moving field data from source to target one field at a time...
          */
@@ -115,29 +679,21 @@ public class Cartographer {
                 // process matching class name
                 // we have a matching business CLASS name among the business class names
                 // which means we have a matching business class type... (should i support the same business name on different types? --i dont think so)
-                if (sourceMap.containsKey(targetBusinessName)) {
-                    foundClassMatch = processBusinessClassName(targetBusinessName, targetBean, sourceMap);
+                if (sourceIndex.hasClassBeans(targetBusinessName)) {
+                    foundClassMatch = processBusinessClassName(targetBusinessName, targetBean, sourceIndex, copier);
                 }
 
                 // process composite classes
                 else if (NameUtils.hasBusinessComposites(targetBean.getClazz())) {
                     // copy all fields from composites (if found)...
-                    Set<String> processedFieldNames = processComposites(targetBean, sourceMap);
-
-                    // remove processed field names if they are terminal types...
-                    Iterator<NamePointerBean> it = targetBean.getFields().iterator();
-                    NamePointerBean bnpb = null;
-                    while (it.hasNext()) {
-                        bnpb = it.next();
-                        if (!NamePointerBean.NAME_TYPE.TERMINAL.equals(bnpb.getType()))
-                            continue;
-                        if (processedFieldNames.contains(bnpb.getName()))
-                            it.remove();
-                    }
+                    Set<String> processedFieldNames = processComposites(targetBean, sourceIndex, copier);
 
-                    // process the remaining fields...
+                    // process the remaining fields skipping the terminal ones the composites took care of...
                     for (NamePointerBean targetNameBean : targetBean.getFields()) {
-                        processField(targetNameBean.getName(), targetBean, sourceMap);
+                        if (NamePointerBean.NAME_TYPE.TERMINAL.equals(targetNameBean.getType()) &&
+                                processedFieldNames.contains(targetNameBean.getName()))
+                            continue;
+                        processField(targetNameBean.getName(), targetBean, sourceIndex, copier);
                     }
                     foundClassMatch = true;
                 }
@@ -145,15 +701,15 @@ public class Cartographer {
                 // check for the business CLASS name in the contained fields for all of the business classes...
                 // this should end up being a class...
                 else {
-                    foundClassMatch = processField(targetBusinessName, targetBean, sourceMap);
+                    foundClassMatch = processField(targetBusinessName, targetBean, sourceIndex, copier);
                 }
 
                 // if we get here we have no matching business class names anywhere.  What we need to do now
                 // is search through his contained business FIELDs for a match on business class or contained field...
                 if (!foundClassMatch) {
                     for (NamePointerBean targetNameBean : targetBean.getFields()) {
-                        if (!processBusinessClassName(targetNameBean.getName(), targetBean, sourceMap))
-                            processField(targetNameBean.getName(), targetBean, sourceMap);
+                        if (!processBusinessClassName(targetNameBean.getName(), targetBean, sourceIndex, copier))
+                            processField(targetNameBean.getName(), targetBean, sourceIndex, copier);
                     }
                 }
             }
@@ -176,15 +732,296 @@ public class Cartographer {
         process(sourceObj, targetObj);
     }
 
+    /**
+     * Map an object on another thread.  This is meant for formatters that block (lookups against files, services,
+     * etc.): by default every mapping gets a thread of its own, a virtual thread on runtimes that have them, so any
+     * number of mappings can wait at once without a big thread pool.
+     *
+     * @param sourceObj object to use as the source
+     * @param targetObj object to use as the target
+     * @param <T> target type
+     * @return future completed with the target once it is mapped (or exceptionally if the mapping fails)
+     * @see Builder#asyncExecutor(Executor)
+     */
+    public <T> CompletableFuture<T> mapObjectAsync(Object sourceObj, T targetObj) {
+        return mapObjectAsync(sourceObj, targetObj, asyncExecutor);
+    }
+
+    /**
+     * Map an object on the given executor.
+     *
+     * @param sourceObj object to use as the source
+     * @param targetObj object to use as the target
+     * @param executor executor to map on
+     * @param <T> target type
+     * @return future completed with the target once it is mapped (or exceptionally if the mapping fails)
+     */
+    public <T> CompletableFuture<T> mapObjectAsync(Object sourceObj, T targetObj, Executor executor) {
+        if (sourceObj == null)
+            throw new IllegalArgumentException("sourceObj cannot be null");
+        if (targetObj == null)
+            throw new IllegalArgumentException("targetObj cannot be null");
+        Preconditions.checkNotNull(executor, "executor cannot be null");
+
+        return CompletableFuture.supplyAsync(() -> {
+            process(sourceObj, targetObj);
+            return targetObj;
+        }, executor);
+    }
+
+    /**
+     * Map a batch of sources into new targets.  The mapping is worked out once for the class pair of the batch and
+     * reused for every element after that (batches of mixed classes still work, they just look the pair up again
+     * whenever it changes).
+     *
+     * @param sources objects to copy
+     * @param targetFactory creates a new target for each source
+     * @param <S> source type
+     * @param <T> target type
+     * @return the targets in the same order as the sources (<code>null</code> where a source is <code>null</code>)
+     */
+    public <S, T> List<T> mapAll(List<? extends S> sources, Supplier<? extends T> targetFactory) {
+        Preconditions.checkNotNull(sources, "sources cannot be null");
+        return mapAll(sources, targetFactory, sources.size());
+    }
+
+    /**
+     * Map a batch of sources into new targets.
+     *
+     * @param sources objects to copy
+     * @param targetFactory creates a new target for each source
+     * @param expectedSize number of sources expected, used to size the result
+     * @param <S> source type
+     * @param <T> target type
+     * @return the targets in the same order as the sources (<code>null</code> where a source is <code>null</code>)
+     * @see #mapAll(List, Supplier)
+     */
+    public <S, T> List<T> mapAll(Iterable<? extends S> sources, Supplier<? extends T> targetFactory, int expectedSize) {
+        Preconditions.checkNotNull(sources, "sources cannot be null");
+        Preconditions.checkNotNull(targetFactory, "targetFactory cannot be null");
+        List<T> targets = new ArrayList<>(Math.max(expectedSize, 0));
+
+        ClassPair pair = null;
+        for (S source : sources) {
+            if (source == null) {
+                targets.add(null);
+                continue;
+            }
+            T target = targetFactory.get();
+            pair = mapElement(source, target, pair);
+            targets.add(target);
+        }
+        return targets;
+    }
+
+    /**
+     * Map a batch of sources into new targets using every thread of the common fork join pool.
+     *
+     * @param sources objects to copy
+     * @param targetFactory creates a new target for each source (called from many threads)
+     * @param <S> source type
+     * @param <T> target type
+     * @return the targets in the same order as the sources (<code>null</code> where a source is <code>null</code>)
+     * @see #mapAllParallel(List, Supplier, ForkJoinPool)
+     */
+    public <S, T> List<T> mapAllParallel(List<? extends S> sources, Supplier<? extends T> targetFactory) {
+        return mapAllParallel(sources, targetFactory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Map a batch of sources into new targets on a fork join pool.  The batch is split into chunks (a few per thread
+     * of the pool) and each chunk is mapped like mapAll does, so the chunks share nothing but this Cartographer's
+     * plans.  The targets are written back by position so the result keeps the order of the sources.
+     *
+     * @param sources objects to copy
+     * @param targetFactory creates a new target for each source (called from many threads)
+     * @param pool pool to map on
+     * @param <S> source type
+     * @param <T> target type
+     * @return the targets in the same order as the sources (<code>null</code> where a source is <code>null</code>)
+     */
+    @SuppressWarnings("unchecked")
+    public <S, T> List<T> mapAllParallel(List<? extends S> sources, Supplier<? extends T> targetFactory, ForkJoinPool pool) {
+        Preconditions.checkNotNull(sources, "sources cannot be null");
+        Preconditions.checkNotNull(targetFactory, "targetFactory cannot be null");
+        Preconditions.checkNotNull(pool, "pool cannot be null");
+
+        Object[] targets = new Object[sources.size()];
+        int chunkSize = Math.max(MIN_PARALLEL_CHUNK, targets.length / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        pool.invoke(new MapChunkTask(sources, targetFactory, targets, 0, targets.length, chunkSize));
+        return new ArrayList<>((List<T>) Arrays.asList(targets));
+    }
+
+    /**
+     * This task maps a range of a batch, splitting it in half until it is no bigger than a chunk.
+     */
+    private class MapChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<?> sources;
+        private final Supplier<?> targetFactory;
+        private final Object[] targets;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private MapChunkTask(List<?> sources, Supplier<?> targetFactory, Object[] targets, int from, int to, int chunkSize) {
+            this.sources = sources;
+            this.targetFactory = targetFactory;
+            this.targets = targets;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new MapChunkTask(sources, targetFactory, targets, from, middle, chunkSize),
+                          new MapChunkTask(sources, targetFactory, targets, middle, to, chunkSize));
+                return;
+            }
+
+            ClassPair pair = null;
+            for (int i = from; i < to; i++) {
+                Object source = sources.get(i);
+                if (source == null)
+                    continue;
+                Object target = targetFactory.get();
+                pair = mapElement(source, target, pair);
+                targets[i] = target;
+            }
+        }
+    }
+
+    /**
+     * Map a stream of sources into a stream of new targets.  Nothing is mapped until the returned stream is consumed
+     * and then only one element at a time, so a stream over a cursor never has to be held in memory.  Parallel
+     * streams stay parallel: the sources are split the way the source stream splits them and each split maps on its
+     * own.
+     *
+     * @param sources objects to copy
+     * @param targetFactory creates a new target for each source (called from many threads if the stream is parallel)
+     * @param <S> source type
+     * @param <T> target type
+     * @return stream of the targets in the order of the sources (<code>null</code> where a source is <code>null</code>)
+     */
+    public <S, T> Stream<T> mapStream(Stream<? extends S> sources, Supplier<? extends T> targetFactory) {
+        Preconditions.checkNotNull(sources, "sources cannot be null");
+        Preconditions.checkNotNull(targetFactory, "targetFactory cannot be null");
+        Spliterator<T> targets = new MappingSpliterator<>(sources.spliterator(), targetFactory);
+        return StreamSupport.stream(targets, sources.isParallel()).onClose(sources::close);
+    }
+
+    /**
+     * Map sources into new targets as the returned iterator is advanced.
+     *
+     * @param sources objects to copy
+     * @param targetFactory creates a new target for each source
+     * @param <S> source type
+     * @param <T> target type
+     * @return iterator over the targets (<code>null</code> where a source is <code>null</code>)
+     * @see #mapStream(Stream, Supplier)
+     */
+    public <S, T> Iterator<T> mapIterator(Iterator<? extends S> sources, Supplier<? extends T> targetFactory) {
+        Preconditions.checkNotNull(sources, "sources cannot be null");
+        Preconditions.checkNotNull(targetFactory, "targetFactory cannot be null");
+        Spliterator<? extends S> spliterator = Spliterators.spliteratorUnknownSize(sources, Spliterator.ORDERED);
+        return Spliterators.iterator(new MappingSpliterator<S, T>(spliterator, targetFactory));
+    }
+
+    /**
+     * This spliterator maps the elements of a source spliterator as they are taken.  Splits map on their own so each
+     * keeps the class pair of its last element to itself.
+     */
+    private class MappingSpliterator<S, T> implements Spliterator<T> {
+
+        // new targets are neither sorted nor distinct by anything the sources were...
+        private static final int KEPT_CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE | CONCURRENT;
+
+        private final Spliterator<? extends S> sources;
+        private final Supplier<? extends T> targetFactory;
+        private ClassPair pair = null;
+
+        private MappingSpliterator(Spliterator<? extends S> sources, Supplier<? extends T> targetFactory) {
+            this.sources = sources;
+            this.targetFactory = targetFactory;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return sources.tryAdvance(source -> action.accept(map(source)));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            sources.forEachRemaining(source -> action.accept(map(source)));
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            Spliterator<? extends S> split = sources.trySplit();
+            return split == null ? null : new MappingSpliterator<S, T>(split, targetFactory);
+        }
+
+        @Override
+        public long estimateSize() {
+            return sources.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return sources.characteristics() & KEPT_CHARACTERISTICS;
+        }
+
+        private T map(S source) {
+            if (source == null)
+                return null;
+            T target = targetFactory.get();
+            pair = mapElement(source, target, pair);
+            return target;
+        }
+    }
+
+    /**
+     * Map one element of a batch.
+     *
+     * @param source object to copy
+     * @param target object to copy to
+     * @param pair class pair of the previous element or <code>null</code> if there was none
+     * @return class pair of this element
+     */
+    private ClassPair mapElement(Object source, Object target, ClassPair pair) {
+        if (target == null)
+            throw new IllegalArgumentException("targetFactory cannot return null");
+        if (pair == null || !pair.matches(source, target))
+            pair = getClassPair(source.getClass(), target.getClass());
+        process(source, target, pair);
+        return pair;
+    }
+
+    /**
+     * @param sourceClass class mapped from
+     * @param targetClass class mapped to
+     * @return what is known about mapping the classes
+     */
+    private ClassPair getClassPair(Class<?> sourceClass, Class<?> targetClass) {
+        return classPairs
+                .computeIfAbsent(sourceClass, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(targetClass, k -> new ClassPair(sourceClass, targetClass));
+    }
+
     /**
      * This method will process the classes that have the composite annotation at the class level.  All composites
      * listed will be used to populate this class.
      *
      * @param targetBean bean containing target data
-     * @param sourceMap map of named class beans
+     * @param sourceIndex index of the source names
+     * @param copier copier to use for each matching field
      * @return set of named fields that have been processed
      */
-    private Set<String> processComposites(NamedClassBean targetBean, Map<String, List<NamedClassBean>> sourceMap) {
+    private Set<String> processComposites(NamedClassBean targetBean, NameIndex sourceIndex, MappingPlan.FieldCopier copier) {
         if (targetBean == null)
             throw new IllegalArgumentException("cannot be null");
         String[] compositeNames = NameUtils.getBusinessComposites(targetBean.getClazz());
@@ -195,25 +1032,14 @@ public class Cartographer {
         for (String businessName : compositeNames) {
             // we have a matching business name among the business class names
             // which means we have a matching business class type... (should i support the same business name on different types? --i dont think so)
-            if (sourceMap.containsKey(businessName)) {
-                List<NamedClassBean> sourceClassBeanList = sourceMap.get(businessName);
+            if (sourceIndex.hasClassBeans(businessName)) {
+                List<NamedClassBean> sourceClassBeanList = sourceIndex.getClassBeans(businessName);
 
                 // find the source bean having the same business name that we are looking for and copy the fields...
                 for (NamedClassBean bcb : sourceClassBeanList) {
                     if (bcb.getName().equals(businessName)) {
-                        NamedClassBean sourceBean = bcb;
-
                         // copy the matching class fields...
-
-                        // get the container instances...
-                        List<Object> targetInstances = targetBean.getInstances(); // HOW DO I PICK AN INSTANCE AGAIN?????  let's use the first one for now
-                        Object targetInstance = targetInstances.get(0);
-
-                        // get the business fields...
-                        List<NamePointerBean> sourceFields = sourceBean.getFields();
-                        List<NamePointerBean> targetFields = targetBean.getFields();
-
-                        processedFieldNames.addAll(copyMatchingFields(sourceFields, targetFields, targetInstance, sourceMap));
+                        processedFieldNames.addAll(copyMatchingFields(bcb, targetBean, copier));
                         break;
                     }
                 }
@@ -228,31 +1054,20 @@ public class Cartographer {
      *
      * @param targetBusinessName target name
      * @param targetBean target bean
-     * @param sourceMap map of source name beans
+     * @param sourceIndex index of the source names
+     * @param copier copier to use for each matching field
      * @return true if the business class name was found and the field contents were copied
      */
-    private boolean processBusinessClassName(String targetBusinessName, NamedClassBean targetBean, Map<String, List<NamedClassBean>> sourceMap) {
+    private boolean processBusinessClassName(String targetBusinessName, NamedClassBean targetBean, NameIndex sourceIndex, MappingPlan.FieldCopier copier) {
         // we have a matching business name among the business class names
         // which means we have a matching business class type... (should i support the same business name on different types? --i dont think so)
-        if (sourceMap.containsKey(targetBusinessName)) {
-            List<NamedClassBean> sourceClassBeanList = sourceMap.get(targetBusinessName);
+        if (sourceIndex.hasClassBeans(targetBusinessName)) {
+            List<NamedClassBean> sourceClassBeanList = sourceIndex.getClassBeans(targetBusinessName);
 
             // if the source contains the same bean as the target then copy the fields...
-            if (sourceClassBeanList.contains(targetBean)) {
-                NamedClassBean sourceBean = sourceClassBeanList.get(sourceClassBeanList.indexOf(targetBean));
-
-                // copy the matching class fields...
-
-                // get the container instances...
-                List<Object> targetInstances = targetBean.getInstances(); // HOW DO I PICK AN INSTANCE AGAIN?????  let's use the first one for now
-                Object targetInstance = targetInstances.get(0);
-
-                // get the business fields...
-                List<NamePointerBean> sourceFields = sourceBean.getFields();
-                List<NamePointerBean> targetFields = targetBean.getFields();
-
-                copyMatchingFields(sourceFields, targetFields, targetInstance, sourceMap);
-            }
+            int i = sourceClassBeanList.indexOf(targetBean);
+            if (i > -1)
+                copyMatchingFields(sourceClassBeanList.get(i), targetBean, copier);
             return true;
         }
         return false;
@@ -262,81 +1077,161 @@ public class Cartographer {
      * Copy source business field value to target field as long as their business names match and they are terminal
      * types!
      *
-     * @param sourceFields list of source name beans
-     * @param targetFields list of target fields
-     * @param targetInstance target instance
+     * @param sourceBean source named class bean
+     * @param targetBean target named class bean
+     * @param copier copier to use for each matching field
      * @return List of business field names that were copied
      */
-    private List<String> copyMatchingFields(List<NamePointerBean> sourceFields, List<NamePointerBean> targetFields, Object targetInstance, Map<String, List<NamedClassBean>> sourceMap) {
+    private List<String> copyMatchingFields(NamedClassBean sourceBean, NamedClassBean targetBean, MappingPlan.FieldCopier copier) {
         List<String> copiedFields = new ArrayList<>();
 
-        sourceFields.stream()
-                .filter(targetFields::contains)
-                .forEach(sourceField -> {
-                    copyFieldContents(targetInstance, targetFields.get(targetFields.indexOf(sourceField)), sourceField);
-                    copiedFields.add(sourceField.getName());
-                });
+        // HOW DO I PICK AN INSTANCE AGAIN?????  let's use the first one for now
+        Object targetInstance = targetBean.getInstances().get(0);
+        for (NamePointerBean sourceField : sourceBean.getFields()) {
+            NamePointerBean targetField = targetBean.getField(sourceField.getName());
+            if (targetField != null) {
+                copier.copy(targetInstance, targetField, sourceField);
+                copiedFields.add(sourceField.getName());
+            }
+        }
         return copiedFields;
     }
 
     /**
-     * This method will look through all of the source fields for a match on target business name.  If found that field
-     * will be copied to the target provided it is a terminal field and not another complex object.
+     * This method will look up the first source field having the target business name.  If found that field will be
+     * copied to the target field of the same name provided it is a terminal field and not another complex object.
      *
      * @param targetBusinessName target name
      * @param targetBean target bean
-     * @param sourceMap map of source names
+     * @param sourceIndex index of the source names
+     * @param copier copier to use for the matching field
      * @return <code>true</code> if match found
      */
-    private boolean processField(String targetBusinessName, NamedClassBean targetBean, Map<String, List<NamedClassBean>> sourceMap) {
-        List<Object> targetInstances = targetBean.getInstances(); // HOW DO I PICK AN INSTANCE AGAIN?????  let's use the first one for now
-        Object instance = targetInstances.get(0);
-        return processField(targetBusinessName, targetBean.getFields(), instance, sourceMap);
+    private boolean processField(String targetBusinessName, NamedClassBean targetBean, NameIndex sourceIndex, MappingPlan.FieldCopier copier) {
+        NamePointerBean sourceNameBean = sourceIndex.getField(targetBusinessName);
+        NamePointerBean targetNameBean = targetBean.getField(targetBusinessName);
+        if (sourceNameBean == null || targetNameBean == null)
+            return false;
+
+        // HOW DO I PICK AN INSTANCE AGAIN?????  let's use the first one for now
+        copier.copy(targetBean.getInstances().get(0), targetNameBean, sourceNameBean);
+        return true;
     }
 
     /**
-     * This method will look through all of the source fields for a match on target business name.  If found that field
-     * will be copied to the target provided it is a terminal field and not another complex object.
-     *
-     * @param targetBusinessName target name
-     * @param targetFields target field list
-     * @param targetInstance target instance
-     * @param sourceMap map of source names
-     * @return <code>true</code> if match found
+     * This class maps the elements of one collection, map, or array into new instances of the target element type.
+     * The element class pair is looked up once and kept for as long as the elements keep coming in the same class, so
+     * the elements of a homogeneous container just replay the pair's plan one after the other.  Elements that are
+     * themselves arrays, collections, or maps (i.e. a List&lt;Map&lt;String, Address&gt;&gt;) are copied into new
+     * containers by mappers of their own element types.  Terminal elements and elements going into Object slots are
+     * passed along as they are.
+     * <p>
+     * When identity is preserved a source element already mapped to an instance of the class during this mapping
+     * (including one still being mapped further up a cycle) gives back that same target.
      */
-    private boolean processField(String targetBusinessName, List<NamePointerBean> targetFields, Object targetInstance, Map<String, List<NamedClassBean>> sourceMap) {
-        boolean foundClassMatch = false;
-        for (Map.Entry<String, List<NamedClassBean>> sourceMapEntry : sourceMap.entrySet()) {
-            for (NamedClassBean sourceClassBean : sourceMapEntry.getValue()) {
-                for (NamePointerBean sourceNameBean : sourceClassBean.getFields()) {
-                    if (targetBusinessName.equals(sourceNameBean.getName())) {
-                        // copy the field data...
-                        copyFieldContents(targetInstance, targetFields.get(targetFields.indexOf(sourceNameBean)), sourceNameBean);
-                        foundClassMatch = true;
-                        break;
-                    }
-                }
-                if (foundClassMatch)
-                    break;
-            }
-            if (foundClassMatch)
-                break;
+    private class ElementMapper {
+        private final Type targetType;
+        private final Class<?> targetElementClass;
+        private final boolean terminal;
+        private Constructor<?> constructor = null;
+        private ClassPair pair = null;
+        private ElementMapper elementMapper = null; // elements (or keys) of contained containers
+        private ElementMapper valueMapper = null;   // values of contained maps
+
+        private ElementMapper(Type targetType) {
+            this.targetType = targetType;
+            this.targetElementClass = GenericTypes.rawClass(targetType);
+            this.terminal = Object.class.equals(targetElementClass) || NameUtils.isImmutable(targetElementClass);
         }
-        return foundClassMatch;
-    }
 
-    /**
-     * Create a bean instance from it's class.
-     *
-     * @param namePointer name pointer bean containing an instance
-     */
-    private static void createInstanceFromClass(NamePointerBean namePointer) {
-        if (namePointer != null && namePointer.getInstance() == null) {
-            try {
-                namePointer.setInstance(namePointer.getClass().newInstance());
-            } catch (Exception e) {
-                e.printStackTrace();
+        /**
+         * @return <code>true</code> if elements are passed along as they are
+         */
+        private boolean isTerminal() {
+            return terminal;
+        }
+
+        /**
+         * @param sourceElement element to copy
+         * @return the target element
+         * @throws ReflectiveOperationException if the target element cannot be created
+         */
+        private Object map(Object sourceElement) throws ReflectiveOperationException {
+            if (sourceElement == null || terminal)
+                return sourceElement;
+
+            Map<Object, Object> mapped = identities.get();
+            Object targetElement = mapped == null ? null : mapped.get(sourceElement);
+            if (targetElement != null && targetElementClass.isInstance(targetElement))
+                return targetElement;
+
+            if (sourceElement instanceof Collection<?> && Collection.class.isAssignableFrom(targetElementClass))
+                return mapCollection((Collection<?>) sourceElement, mapped);
+            if (sourceElement instanceof Map<?, ?> && Map.class.isAssignableFrom(targetElementClass))
+                return mapMap((Map<?, ?>) sourceElement, mapped);
+            if (sourceElement.getClass().isArray() && targetElementClass.isArray())
+                return mapArray(sourceElement, mapped);
+
+            if (constructor == null) {
+                constructor = targetElementClass.getDeclaredConstructor();
+                constructor.setAccessible(true);
             }
+            targetElement = constructor.newInstance();
+            if (mapped != null)
+                mapped.putIfAbsent(sourceElement, targetElement);
+
+            if (pair == null || !pair.matches(sourceElement, targetElement))
+                pair = getClassPair(sourceElement.getClass(), targetElementClass);
+            process(sourceElement, targetElement, pair);
+            return targetElement;
+        }
+
+        private Object mapCollection(Collection<?> sourceCollection, Map<Object, Object> mapped) throws ReflectiveOperationException {
+            Collection<Object> targetCollection = containerFactory.newCollection(targetType, sourceCollection.size());
+            if (mapped != null)
+                mapped.putIfAbsent(sourceCollection, targetCollection);
+            if (elementMapper == null)
+                elementMapper = new ElementMapper(GenericTypes.elementType(targetType));
+            for (Object element : sourceCollection)
+                targetCollection.add(elementMapper.map(element));
+            return complete(sourceCollection, targetCollection, mapped);
+        }
+
+        private Object mapMap(Map<?, ?> sourceMap, Map<Object, Object> mapped) throws ReflectiveOperationException {
+            Map<Object, Object> targetMap = containerFactory.newMap(targetType, sourceMap.size());
+            if (mapped != null)
+                mapped.putIfAbsent(sourceMap, targetMap);
+            if (elementMapper == null)
+                elementMapper = new ElementMapper(GenericTypes.keyType(targetType));
+            if (valueMapper == null)
+                valueMapper = new ElementMapper(GenericTypes.valueType(targetType));
+            for (Map.Entry<?, ?> entry : sourceMap.entrySet())
+                targetMap.put(elementMapper.map(entry.getKey()), valueMapper.map(entry.getValue()));
+            return complete(sourceMap, targetMap, mapped);
+        }
+
+        private Object mapArray(Object sourceArray, Map<Object, Object> mapped) throws ReflectiveOperationException {
+            int length = Array.getLength(sourceArray);
+            Object targetArray = containerFactory.newArray(targetElementClass.getComponentType(), length);
+            if (mapped != null)
+                mapped.putIfAbsent(sourceArray, targetArray);
+            if (elementMapper == null)
+                elementMapper = new ElementMapper(GenericTypes.elementType(targetType));
+            if ((elementMapper.targetElementClass.isPrimitive() || elementMapper.isTerminal()) && TerminalArrays.copy(sourceArray, targetArray, length))
+                return targetArray;
+            for (int i = 0; i < length; i++)
+                Array.set(targetArray, i, elementMapper.map(Array.get(sourceArray, i)));
+            return targetArray;
+        }
+
+        /**
+         * @return the filled container as the factory completes it (remembered in its place from now on)
+         */
+        private Object complete(Object sourceContainer, Object targetContainer, Map<Object, Object> mapped) {
+            Object completed = containerFactory.complete(targetType, targetContainer);
+            if (mapped != null && completed != targetContainer)
+                mapped.replace(sourceContainer, targetContainer, completed);
+            return completed;
         }
     }
 
@@ -354,33 +1249,33 @@ public class Cartographer {
         if (sourceNameBean.getInstance() != null) {
             // if target bean array object is null create one and set it back into the target bean...
             if (targetNameBean.getInstance() == null) {
-                targetNameBean.setInstance(Array.newInstance(targetNameBean.getField().getType().getComponentType(), Array.getLength(sourceNameBean.getInstance())));
+                targetNameBean.setInstance(containerFactory.newArray(targetNameBean.getField().getType().getComponentType(), Array.getLength(sourceNameBean.getInstance())));
             }
 
-            final Class<?> targetElementClass;
-            targetElementClass = targetNameBean.getInstance().getClass().getComponentType();
+            // the declared element type knows more than the array instance (i.e. generic component types) as long as
+            // the array is of the declared type...
+            final Type declaredElementType = targetNameBean.getFieldMetadata().getElementType();
+            final Class<?> targetElementClass = targetNameBean.getInstance().getClass().getComponentType();
+            final Type targetElementType = GenericTypes.rawClass(declaredElementType).equals(targetElementClass) ? declaredElementType : targetElementClass;
 
             // if the target bean array instance exists...
             if (targetNameBean.getInstance() != null) {
                 Object sourceArray = sourceNameBean.getInstance();
                 Object targetArray = targetNameBean.getInstance();
 
-                final boolean isTerminal = NameUtils.isImmutable(targetElementClass);
+                final ElementMapper elementMapper = new ElementMapper(targetElementType);
+
+                // terminal elements go across in bulk when the component types allow it...
+                if ((targetElementClass.isPrimitive() || elementMapper.isTerminal())
+                        && TerminalArrays.copy(sourceArray, targetArray, Math.min(Array.getLength(sourceArray), Array.getLength(targetArray))))
+                    return;
+
                 // for each element in the source collection create a new element for the target collection
                 // populating it by recursively calling mapObject.  Once the new instance has been mapped,
                 // add him to the target collection...
-                Object sourceElement = null;
                 for (int i = 0; i < Array.getLength(sourceArray); i++) {
                     try {
-                        sourceElement = Array.get(sourceArray, i);
-                        Object targetElement;
-                        if (sourceElement == null || isTerminal)
-                            targetElement = sourceElement;
-                        else {
-                            targetElement = targetElementClass.newInstance();
-                            process(sourceElement, targetElementClass.cast(targetElement));
-                        }
-                        Array.set(targetArray, i, targetElement);
+                        Array.set(targetArray, i, elementMapper.map(Array.get(sourceArray, i)));
                     } catch (Exception e) {
                         e.printStackTrace();
                     }
@@ -390,7 +1285,8 @@ public class Cartographer {
     }
 
     /**
-     * Copy source collection to a target collection.
+     * Copy source collection to a target collection.  When the target has no collection the container factory creates
+     * one sized for the source and the filled collection is set into the target.
      *
      * @param targetNameBean target name bean
      * @param sourceNameBean source name bean
@@ -401,48 +1297,53 @@ public class Cartographer {
             return;
         // if the source bean has an instance associated with it (otherwise we ignore it)...
         if (sourceNameBean.getInstance() != null) {
-            // if target bean collection object is null create one and set it back into the target bean...
-            createInstanceFromClass(targetNameBean);
+            Collection<?> sourceCollection = (Collection<?>) sourceNameBean.getInstance();
+            final Type targetType = targetNameBean.getField().getGenericType();
 
-            final Class<?> targetElementClass;
-            try {
-                targetElementClass = Class.forName(((ParameterizedType) targetNameBean.getField().getGenericType()).getActualTypeArguments()[0].getTypeName());
-            } catch (ClassNotFoundException e) {
-                e.printStackTrace();
-                return;
-            }
-            // if the target bean collection instance exists...
-            if (targetNameBean.getInstance() != null) {
-                Collection<?> sourceCollection = (Collection<?>) sourceNameBean.getInstance();
-                Collection<?> targetCollection = (Collection<?>) targetNameBean.getInstance();
+            // if target bean collection object is null create one and set it back into the target bean once filled...
+            @SuppressWarnings("unchecked")
+            Collection<Object> targetCollection = (Collection<Object>) targetNameBean.getInstance();
+            final boolean created = targetCollection == null;
+            if (created) {
+                try {
+                    targetCollection = containerFactory.newCollection(targetType, sourceCollection.size());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    return;
+                }
+            } else if (targetCollection instanceof ArrayList<?>)
+                ((ArrayList<?>) targetCollection).ensureCapacity(targetCollection.size() + sourceCollection.size());
+
+            final ElementMapper elementMapper = new ElementMapper(targetNameBean.getFieldMetadata().getElementType());
 
-                final boolean isTerminal = NameUtils.isImmutable(targetElementClass);
+            // terminal elements go across as they are...
+            if (elementMapper.isTerminal()) {
+                try {
+                    targetCollection.addAll(sourceCollection);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            } else {
                 // for each element in the source collection create a new element for the target collection
                 // populating it by recursively calling mapObject.  Once the new instance has been mapped,
                 // add him to the target collection...
-                sourceCollection.stream()
-                        .forEach(sourceElement -> {
-                            try {
-                                Object targetElement;
-                                if (sourceElement == null || isTerminal)
-                                    targetElement = sourceElement;
-                                else {
-                                    targetElement = targetElementClass.newInstance();
-                                    process(sourceElement, targetElement);
-                                }
-                                Method add = null;
-                                add = targetCollection.getClass().getDeclaredMethod("add", Object.class);
-                                add.invoke(targetCollection, targetElement);
-                            } catch (Exception e) {
-                                e.printStackTrace();
-                            }
-                        });
+                for (Object sourceElement : sourceCollection) {
+                    try {
+                        targetCollection.add(elementMapper.map(sourceElement));
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
             }
+
+            if (created)
+                targetNameBean.setInstance(containerFactory.complete(targetType, targetCollection));
         }
     }
 
     /**
-     * Copy source map to target map
+     * Copy source map to target map.  When the target has no map the container factory creates one sized for the
+     * source and the filled map is set into the target.
      *
      * @param targetNameBean target name bean
      * @param sourceNameBean source name bean
@@ -453,53 +1354,47 @@ public class Cartographer {
             return;
         // if the source bean has an instance associated with it (otherwise we ignore it)...
         if (sourceNameBean.getInstance() != null) {
-            // if target bean map object is null create one and set it back into the target bean...
-            createInstanceFromClass(targetNameBean);
-
-            final Class<?> targetKeyClass;
-            final Class<?> targetValueClass;
-            try {
-                targetKeyClass = Class.forName(((ParameterizedType) targetNameBean.getField().getGenericType()).getActualTypeArguments()[0].getTypeName());
-                targetValueClass = Class.forName(((ParameterizedType) targetNameBean.getField().getGenericType()).getActualTypeArguments()[1].getTypeName());
-            } catch (ClassNotFoundException e) {
-                e.printStackTrace();
-                return;
-            }
             Map<?, ?> sourceMap = (Map<?, ?>) sourceNameBean.getInstance();
-            Map<?, ?> targetMap = (Map<?, ?>) targetNameBean.getInstance();
-
-            boolean isKeyTerminal = NameUtils.isImmutable(targetKeyClass);
-            boolean isValueTerminal = NameUtils.isImmutable(targetValueClass);
-            // for each element in the source collection create a new element for the target collection
-            // populating it by recursively calling mapObject.  Once the new instance has been mapped,
-            // add him to the target collection...
-            sourceMap.entrySet().stream().forEach(entry -> {
+            final Type targetType = targetNameBean.getField().getGenericType();
+
+            // if target bean map object is null create one and set it back into the target bean once filled...
+            @SuppressWarnings("unchecked")
+            Map<Object, Object> targetMap = (Map<Object, Object>) targetNameBean.getInstance();
+            final boolean created = targetMap == null;
+            if (created) {
                 try {
-                    Object targetKey;
-                    if (isKeyTerminal)
-                        targetKey = entry.getKey();
-                    else {
-                        targetKey = targetKeyClass.newInstance();
-                        process(entry.getKey(), targetKey);
-                    }
+                    targetMap = containerFactory.newMap(targetType, sourceMap.size());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    return;
+                }
+            }
 
-                    Object targetValue;
-                    if (isValueTerminal)
-                        targetValue = entry.getValue();
-                    else {
-                        if (entry.getValue() != null) {
-                            targetValue = targetValueClass.newInstance();
-                            process(entry.getValue(), targetValue);
-                        } else
-                            targetValue = null;
-                    }
+            ElementMapper keyMapper = new ElementMapper(targetNameBean.getFieldMetadata().getKeyType());
+            ElementMapper valueMapper = new ElementMapper(targetNameBean.getFieldMetadata().getValueType());
 
-                    Method put = targetMap.getClass().getDeclaredMethod("put", Object.class, Object.class);
-                    put.invoke(targetMap, targetKey, targetValue);
+            // terminal entries go across as they are...
+            if (keyMapper.isTerminal() && valueMapper.isTerminal()) {
+                try {
+                    targetMap.putAll(sourceMap);
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
-            });
+            } else {
+                // for each element in the source collection create a new element for the target collection
+                // populating it by recursively calling mapObject.  Once the new instance has been mapped,
+                // add him to the target collection...
+                for (Map.Entry<?, ?> entry : sourceMap.entrySet()) {
+                    try {
+                        targetMap.put(keyMapper.map(entry.getKey()), valueMapper.map(entry.getValue()));
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+
+            if (created)
+                targetNameBean.setInstance(containerFactory.complete(targetType, targetMap));
         }
     }
 
@@ -530,19 +1425,30 @@ public class Cartographer {
         else if (NamePointerBean.NAME_TYPE.TERMINAL.equals(sourceNameBean.getType()) &&
                 NamePointerBean.NAME_TYPE.TERMINAL.equals(targetNameBean.getType())) {
             try {
-                sourceNameBean.getField().setAccessible(true);
-                targetNameBean.getField().setAccessible(true);
-
-                // we have a field formatter so use it...
-                if (fieldFormatters.containsKey(targetNameBean.getName()))
-                    targetNameBean.getField().set(targetInstance, fieldFormatters.get(targetNameBean.getName()).format(sourceNameBean.getInstance()));
-                else
-                    targetNameBean.getField().set(targetInstance, sourceNameBean.getInstance());
-
+                getTerminalCopy(targetNameBean, sourceNameBean).copy(sourceNameBean.getFieldContainer(), targetInstance);
             } catch (Exception e) {
                 e.printStackTrace();
             }
         }
     }
-}
 
+    /**
+     * The formatter of a pair of terminal fields is resolved (and the way it is called picked) once per pair of fields
+     * and again whenever a formatter is added.
+     *
+     * @param targetNameBean target name bean
+     * @param sourceNameBean source name bean
+     * @return copy from the source field into the target field
+     */
+    private MappingPlan.DirectCopy getTerminalCopy(NamePointerBean targetNameBean, NamePointerBean sourceNameBean) {
+        TerminalCopies current = terminalCopies;
+        int version = fieldFormatters.getVersion();
+        if (current == null || current.version != version)
+            terminalCopies = current = new TerminalCopies(version);
+        return current.copies
+                .computeIfAbsent(targetNameBean.getFieldMetadata(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(sourceNameBean.getFieldMetadata(), k -> FormattedCopy.compile(
+                        fieldFormatters.resolve(targetNameBean.getName(), sourceNameBean.getField().getType(), targetNameBean.getField().getType()),
+                        sourceNameBean.getAccessor(), targetNameBean.getAccessor()));
+    }
+}
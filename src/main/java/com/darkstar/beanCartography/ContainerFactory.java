@@ -0,0 +1,69 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * This interface is used by objects wishing to control how the Cartographer creates target collections, maps, and
+ * arrays.  A container is only created when the target does not already have one (a null field or an element of a
+ * container being copied).  It is created empty, filled with the copied elements, and then completed: whatever
+ * complete returns is what ends up in the target.
+ *
+ * @author michael snavely
+ * @see DefaultContainerFactory
+ */
+public interface ContainerFactory {
+
+    /**
+     * @param type declared type of the collection (i.e. the generic type of the target field)
+     * @param size number of elements the collection will be filled with
+     * @return a new, empty, and modifiable collection assignable to the type
+     * @throws ReflectiveOperationException if no collection can be created for the type
+     */
+    public Collection<Object> newCollection(Type type, int size) throws ReflectiveOperationException;
+
+    /**
+     * @param type declared type of the map (i.e. the generic type of the target field)
+     * @param size number of entries the map will be filled with
+     * @return a new, empty, and modifiable map assignable to the type
+     * @throws ReflectiveOperationException if no map can be created for the type
+     */
+    public Map<Object, Object> newMap(Type type, int size) throws ReflectiveOperationException;
+
+    /**
+     * @param componentType component type of the array
+     * @param length length of the array
+     * @return a new array
+     */
+    public default Object newArray(Class<?> componentType, int length) {
+        return Array.newInstance(componentType, length);
+    }
+
+    /**
+     * @param type declared type of the container
+     * @param container collection or map created by this factory once it has been filled
+     * @return the container to put in the target (it must still be assignable to the type)
+     */
+    public default Object complete(Type type, Object container) {
+        return container;
+    }
+}
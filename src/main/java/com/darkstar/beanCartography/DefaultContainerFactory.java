@@ -0,0 +1,228 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import com.darkstar.beanCartography.utils.GenericTypes;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This is the container factory used unless another is given.  Concrete declared types are created through their
+ * no argument constructors unless they are JDK containers that can be sized for the source (ArrayList, ArrayDeque,
+ * Vector, HashSet, LinkedHashSet, HashMap, LinkedHashMap, ConcurrentHashMap).  Interfaces and abstract types get the first of these they can hold, sized for the
+ * source:
+ * <ul>
+ *     <li>collections: ArrayList, LinkedHashSet, TreeSet, ArrayDeque</li>
+ *     <li>maps: LinkedHashMap, TreeMap, ConcurrentHashMap</li>
+ * </ul>
+ * Optionally lists of Integer, Long, or Double are backed by primitive arrays instead (they do not take nulls) and
+ * collections and maps declared by interface are made unmodifiable once filled.
+ *
+ * @author michael snavely
+ */
+public class DefaultContainerFactory implements ContainerFactory {
+
+    private final boolean primitiveLists;
+    private final boolean unmodifiable;
+
+    /**
+     * This is used to configure a DefaultContainerFactory.
+     *
+     * @author michael snavely
+     */
+    public static class Builder {
+        private boolean primitiveLists = false;
+        private boolean unmodifiable   = false;
+
+        public Builder() {
+            super();
+        }
+
+        /**
+         * @param primitiveLists set to <code>true</code> if lists of Integer, Long, or Double should be backed by
+         *                       primitive arrays
+         */
+        public Builder primitiveLists(boolean primitiveLists) {
+            this.primitiveLists = primitiveLists;
+            return this;
+        }
+
+        /**
+         * @param unmodifiable set to <code>true</code> if collections and maps declared by interface should be made
+         *                     unmodifiable once filled
+         */
+        public Builder unmodifiable(boolean unmodifiable) {
+            this.unmodifiable = unmodifiable;
+            return this;
+        }
+
+        public DefaultContainerFactory build() {
+            return new DefaultContainerFactory(this);
+        }
+    }
+
+    /**
+     * Constructor
+     */
+    public DefaultContainerFactory() {
+        this(new Builder());
+    }
+
+    /**
+     * DefaultContainerFactory constructor from builder
+     *
+     * @param builder
+     */
+    private DefaultContainerFactory(Builder builder) {
+        super();
+        this.primitiveLists = builder.primitiveLists;
+        this.unmodifiable = builder.unmodifiable;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<Object> newCollection(Type type, int size) throws ReflectiveOperationException {
+        Class<?> clazz = GenericTypes.rawClass(type);
+        if (isConcrete(clazz))
+            return newConcreteCollection(clazz, size);
+
+        if (primitiveLists && clazz.isAssignableFrom(PrimitiveLists.IntList.class)) {
+            Class<?> element = GenericTypes.rawClass(GenericTypes.elementType(type));
+            if (Integer.class.equals(element))
+                return (Collection<Object>) (Collection<?>) new PrimitiveLists.IntList(size);
+            if (Long.class.equals(element))
+                return (Collection<Object>) (Collection<?>) new PrimitiveLists.LongList(size);
+            if (Double.class.equals(element))
+                return (Collection<Object>) (Collection<?>) new PrimitiveLists.DoubleList(size);
+        }
+
+        if (clazz.isAssignableFrom(ArrayList.class))
+            return new ArrayList<>(size);
+        if (clazz.isAssignableFrom(LinkedHashSet.class))
+            return Sets.newLinkedHashSetWithExpectedSize(size);
+        if (clazz.isAssignableFrom(TreeSet.class))
+            return new TreeSet<>();
+        if (clazz.isAssignableFrom(ArrayDeque.class))
+            return new ArrayDeque<>(size);
+        throw new InstantiationException("no collection to create for " + clazz.getName());
+    }
+
+    /**
+     * @param clazz concrete collection class
+     * @param size number of elements the collection will be filled with
+     * @return a new collection of exactly the class, sized for the elements when the class can be
+     */
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> newConcreteCollection(Class<?> clazz, int size) throws ReflectiveOperationException {
+        if (ArrayList.class.equals(clazz))
+            return new ArrayList<>(size);
+        if (ArrayDeque.class.equals(clazz))
+            return new ArrayDeque<>(size);
+        if (Vector.class.equals(clazz))
+            return new Vector<>(size);
+        if (HashSet.class.equals(clazz))
+            return Sets.newHashSetWithExpectedSize(size);
+        if (LinkedHashSet.class.equals(clazz))
+            return Sets.newLinkedHashSetWithExpectedSize(size);
+        return (Collection<Object>) clazz.getDeclaredConstructor().newInstance();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<Object, Object> newMap(Type type, int size) throws ReflectiveOperationException {
+        Class<?> clazz = GenericTypes.rawClass(type);
+        if (isConcrete(clazz))
+            return newConcreteMap(clazz, size);
+        if (clazz.isAssignableFrom(LinkedHashMap.class))
+            return Maps.newLinkedHashMapWithExpectedSize(size);
+        if (clazz.isAssignableFrom(TreeMap.class))
+            return new TreeMap<>();
+        if (clazz.isAssignableFrom(ConcurrentHashMap.class))
+            return new ConcurrentHashMap<>(size);
+        throw new InstantiationException("no map to create for " + clazz.getName());
+    }
+
+    /**
+     * @param clazz concrete map class
+     * @param size number of entries the map will be filled with
+     * @return a new map of exactly the class, sized for the entries when the class can be
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> newConcreteMap(Class<?> clazz, int size) throws ReflectiveOperationException {
+        if (HashMap.class.equals(clazz))
+            return Maps.newHashMapWithExpectedSize(size);
+        if (LinkedHashMap.class.equals(clazz))
+            return Maps.newLinkedHashMapWithExpectedSize(size);
+        if (ConcurrentHashMap.class.equals(clazz))
+            return new ConcurrentHashMap<>(size);
+        return (Map<Object, Object>) clazz.getDeclaredConstructor().newInstance();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object complete(Type type, Object container) {
+        Class<?> clazz = GenericTypes.rawClass(type);
+        if (!unmodifiable || !clazz.isInterface())
+            return container;
+
+        // wrap in the most specific view the declared type can hold...
+        if (container instanceof NavigableSet<?> && clazz.isAssignableFrom(NavigableSet.class))
+            return Collections.unmodifiableNavigableSet((NavigableSet<Object>) container);
+        if (container instanceof SortedSet<?> && clazz.isAssignableFrom(SortedSet.class))
+            return Collections.unmodifiableSortedSet((SortedSet<Object>) container);
+        if (container instanceof Set<?> && clazz.isAssignableFrom(Set.class))
+            return Collections.unmodifiableSet((Set<Object>) container);
+        if (container instanceof List<?> && clazz.isAssignableFrom(List.class))
+            return Collections.unmodifiableList((List<Object>) container);
+        if (container instanceof Collection<?> && clazz.isAssignableFrom(Collection.class))
+            return Collections.unmodifiableCollection((Collection<Object>) container);
+        if (container instanceof NavigableMap<?, ?> && clazz.isAssignableFrom(NavigableMap.class))
+            return Collections.unmodifiableNavigableMap((NavigableMap<Object, Object>) container);
+        if (container instanceof SortedMap<?, ?> && clazz.isAssignableFrom(SortedMap.class))
+            return Collections.unmodifiableSortedMap((SortedMap<Object, Object>) container);
+        if (container instanceof Map<?, ?> && clazz.isAssignableFrom(Map.class))
+            return Collections.unmodifiableMap((Map<Object, Object>) container);
+        return container;
+    }
+
+    private static boolean isConcrete(Class<?> clazz) {
+        return !clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers());
+    }
+}
@@ -19,6 +19,10 @@ package com.darkstar.beanCartography;
 
 /**
  * This interface is used by objects wishing to format source field data before it gets placed into the target field.
+ * <p>
+ * The nested interfaces format primitives without boxing them.  They are registered just like any other formatter and
+ * are called through their primitive method whenever the source and target fields have the primitive types the
+ * formatter works with.  For any other fields they are called through format(Object), which boxes.
  *
  * @author michael snavely
  */
@@ -31,5 +35,116 @@ public interface FieldFormatter {
      * @return formatted object
      */
     public Object format(Object obj);
+
+    /**
+     * Formats a field with the named objects of the source being mapped at hand (i.e. to combine it with other source
+     * fields).  The index is only built the first time a formatter asks for it during a mapping.
+     */
+    public interface WithSource extends FieldFormatter {
+
+        /**
+         * @param obj object to format
+         * @param source index of the named objects of the source being mapped or <code>null</code> when called
+         *               outside of a mapping
+         * @return formatted object
+         */
+        public Object format(Object obj, NameIndex source);
+
+        @Override
+        default Object format(Object obj) {
+            return format(obj, NameIndex.current());
+        }
+    }
+
+    /**
+     * Formats an int field into an int field.
+     */
+    public interface OfInt extends FieldFormatter {
+
+        public int formatInt(int value);
+
+        @Override
+        default Object format(Object obj) {
+            return formatInt(((Number) obj).intValue());
+        }
+    }
+
+    /**
+     * Formats a long field into a long field.
+     */
+    public interface OfLong extends FieldFormatter {
+
+        public long formatLong(long value);
+
+        @Override
+        default Object format(Object obj) {
+            return formatLong(((Number) obj).longValue());
+        }
+    }
+
+    /**
+     * Formats a double field into a double field.
+     */
+    public interface OfDouble extends FieldFormatter {
+
+        public double formatDouble(double value);
+
+        @Override
+        default Object format(Object obj) {
+            return formatDouble(((Number) obj).doubleValue());
+        }
+    }
+
+    /**
+     * Formats a boolean field into a boolean field.
+     */
+    public interface OfBoolean extends FieldFormatter {
+
+        public boolean formatBoolean(boolean value);
+
+        @Override
+        default Object format(Object obj) {
+            return formatBoolean((Boolean) obj);
+        }
+    }
+
+    /**
+     * Formats a field of any type into an int field.
+     */
+    public interface ToInt extends FieldFormatter {
+
+        public int formatToInt(Object obj);
+
+        @Override
+        default Object format(Object obj) {
+            return formatToInt(obj);
+        }
+    }
+
+    /**
+     * Formats a field of any type into a long field.
+     */
+    public interface ToLong extends FieldFormatter {
+
+        public long formatToLong(Object obj);
+
+        @Override
+        default Object format(Object obj) {
+            return formatToLong(obj);
+        }
+    }
+
+    /**
+     * Formats a field of any type into a double field.
+     */
+    public interface ToDouble extends FieldFormatter {
+
+        public double formatToDouble(Object obj);
+
+        @Override
+        default Object format(Object obj) {
+            return formatToDouble(obj);
+        }
+    }
 }
 
@@ -0,0 +1,100 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import com.darkstar.beanCartography.utils.FieldAccessor;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class copies a terminal field, through a field formatter if there is one.  The primitive formatters are called through their
+ * primitive methods when the source field can be read as, and the target field written from, the primitive type they
+ * work with (widening like Java would) so the value is never boxed.  Every other formatter and field combination goes
+ * through format(Object).
+ *
+ * @author michael snavely
+ */
+class FormattedCopy {
+
+    // numeric primitives in the order they widen...
+    private static final List<Class<?>> NUMERIC = Arrays.asList(byte.class, short.class, int.class, long.class, float.class, double.class);
+
+    private FormattedCopy() {
+        super();
+    }
+
+    /**
+     * Pick the way the value is copied once for a pair of fields so copying it again and again does not.
+     *
+     * @param formatter formatter to run on the value or <code>null</code> if there is none
+     * @param sourceAccessor accessor of the source field
+     * @param targetAccessor accessor of the target field
+     * @return copy from the source field through the formatter (if any) into the target field
+     */
+    static MappingPlan.DirectCopy compile(FieldFormatter formatter, FieldAccessor sourceAccessor, FieldAccessor targetAccessor) {
+        if (formatter == null)
+            return (source, target) -> targetAccessor.copy(sourceAccessor, source, target);
+
+        Class<?> sourceType = sourceAccessor.getField().getType();
+        Class<?> targetType = targetAccessor.getField().getType();
+
+        if (formatter instanceof FieldFormatter.OfInt && widens(sourceType, int.class) && widens(int.class, targetType)) {
+            FieldFormatter.OfInt f = (FieldFormatter.OfInt) formatter;
+            return (source, target) -> targetAccessor.setInt(target, f.formatInt(sourceAccessor.getInt(source)));
+        }
+        if (formatter instanceof FieldFormatter.OfLong && widens(sourceType, long.class) && widens(long.class, targetType)) {
+            FieldFormatter.OfLong f = (FieldFormatter.OfLong) formatter;
+            return (source, target) -> targetAccessor.setLong(target, f.formatLong(sourceAccessor.getLong(source)));
+        }
+        if (formatter instanceof FieldFormatter.OfDouble && widens(sourceType, double.class) && targetType == double.class) {
+            FieldFormatter.OfDouble f = (FieldFormatter.OfDouble) formatter;
+            return (source, target) -> targetAccessor.setDouble(target, f.formatDouble(sourceAccessor.getDouble(source)));
+        }
+        if (formatter instanceof FieldFormatter.OfBoolean && sourceType == boolean.class && targetType == boolean.class) {
+            FieldFormatter.OfBoolean f = (FieldFormatter.OfBoolean) formatter;
+            return (source, target) -> targetAccessor.setBoolean(target, f.formatBoolean(sourceAccessor.getBoolean(source)));
+        }
+        if (formatter instanceof FieldFormatter.ToInt && widens(int.class, targetType)) {
+            FieldFormatter.ToInt f = (FieldFormatter.ToInt) formatter;
+            return (source, target) -> targetAccessor.setInt(target, f.formatToInt(sourceAccessor.get(source)));
+        }
+        if (formatter instanceof FieldFormatter.ToLong && widens(long.class, targetType)) {
+            FieldFormatter.ToLong f = (FieldFormatter.ToLong) formatter;
+            return (source, target) -> targetAccessor.setLong(target, f.formatToLong(sourceAccessor.get(source)));
+        }
+        if (formatter instanceof FieldFormatter.ToDouble && targetType == double.class) {
+            FieldFormatter.ToDouble f = (FieldFormatter.ToDouble) formatter;
+            return (source, target) -> targetAccessor.setDouble(target, f.formatToDouble(sourceAccessor.get(source)));
+        }
+        return (source, target) -> targetAccessor.set(target, formatter.format(sourceAccessor.get(source)));
+    }
+
+    /**
+     * @param from primitive type of a value
+     * @param to primitive type it would be stored as
+     * @return <code>true</code> if Java widens the one to the other without a cast
+     */
+    static boolean widens(Class<?> from, Class<?> to) {
+        if (from == to)
+            return true;
+        int fromIndex = from == char.class ? NUMERIC.indexOf(int.class) : NUMERIC.indexOf(from);
+        int toIndex = NUMERIC.indexOf(to);
+        return fromIndex >= 0 && toIndex >= fromIndex;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Primitives;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class holds the field formatters of a Cartographer.  A formatter is registered for a business name, for a
+ * business name and the source and target field types, or for the source and target types alone (a converter used
+ * for every field of those types that has no formatter of its own).  Resolving picks the most specific one:
+ * <ol>
+ *     <li>business name and field types</li>
+ *     <li>business name</li>
+ *     <li>field types</li>
+ * </ol>
+ * Primitive and wrapper types are interchangeable when resolving.  Every registration bumps a version so anything
+ * that resolved formatters ahead of time (i.e. mapping plans) knows to resolve them again.
+ *
+ * @author michael snavely
+ */
+class FormatterRegistry {
+
+    /**
+     * A registration key.  The name is <code>null</code> for converters, the types are <code>null</code> for plain
+     * business name formatters.
+     */
+    private static class Key {
+        private final String name;
+        private final Class<?> sourceType;
+        private final Class<?> targetType;
+
+        private Key(String name, Class<?> sourceType, Class<?> targetType) {
+            this.name = name;
+            this.sourceType = sourceType;
+            this.targetType = targetType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key that = (Key) o;
+            return Objects.equals(name, that.name) && sourceType == that.sourceType && targetType == that.targetType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, sourceType, targetType);
+        }
+    }
+
+    private final Map<Key, FieldFormatter> formatters;
+    private final AtomicInteger version = new AtomicInteger();
+    private volatile boolean sourceFormatters = false;
+
+    /**
+     * Constructor for a registry formatters can be added to at any time
+     */
+    FormatterRegistry() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    private FormatterRegistry(Map<Key, FieldFormatter> formatters) {
+        super();
+        this.formatters = formatters;
+        this.sourceFormatters = formatters.values().stream().anyMatch(f -> f instanceof FieldFormatter.WithSource);
+    }
+
+    /**
+     * @return a registry holding the same formatters that cannot be changed
+     */
+    FormatterRegistry immutableCopy() {
+        return new FormatterRegistry(ImmutableMap.copyOf(formatters));
+    }
+
+    /**
+     * @param businessFieldName name to associate to the formatter
+     * @param f formatter to use
+     */
+    void add(String businessFieldName, FieldFormatter f) {
+        Preconditions.checkNotNull(businessFieldName, "businessFieldName cannot be null");
+        put(new Key(businessFieldName, null, null), f);
+    }
+
+    /**
+     * @param businessFieldName name to associate to the formatter
+     * @param sourceType type of the source field
+     * @param targetType type of the target field
+     * @param f formatter to use
+     */
+    void add(String businessFieldName, Class<?> sourceType, Class<?> targetType, FieldFormatter f) {
+        Preconditions.checkNotNull(businessFieldName, "businessFieldName cannot be null");
+        Preconditions.checkNotNull(sourceType, "sourceType cannot be null");
+        Preconditions.checkNotNull(targetType, "targetType cannot be null");
+        put(new Key(businessFieldName, Primitives.wrap(sourceType), Primitives.wrap(targetType)), f);
+    }
+
+    /**
+     * @param sourceType type of the source field
+     * @param targetType type of the target field
+     * @param f formatter to use for fields of the types that have no formatter of their own
+     */
+    void addConverter(Class<?> sourceType, Class<?> targetType, FieldFormatter f) {
+        Preconditions.checkNotNull(sourceType, "sourceType cannot be null");
+        Preconditions.checkNotNull(targetType, "targetType cannot be null");
+        put(new Key(null, Primitives.wrap(sourceType), Primitives.wrap(targetType)), f);
+    }
+
+    private void put(Key key, FieldFormatter f) {
+        Preconditions.checkNotNull(f, "formatter cannot be null");
+        formatters.put(key, f);
+        if (f instanceof FieldFormatter.WithSource)
+            sourceFormatters = true;
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return <code>true</code> if no formatter has been registered
+     */
+    boolean isEmpty() {
+        return formatters.isEmpty();
+    }
+
+    /**
+     * @return <code>true</code> if a formatter has been registered that needs the index of the source
+     */
+    boolean hasSourceFormatters() {
+        return sourceFormatters;
+    }
+
+    /**
+     * @return number of registrations made so far
+     */
+    int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @param businessFieldName business name of the target field
+     * @param sourceType type of the source field
+     * @param targetType type of the target field
+     * @return the most specific formatter for the copy or <code>null</code> if there is none
+     */
+    FieldFormatter resolve(String businessFieldName, Class<?> sourceType, Class<?> targetType) {
+        if (formatters.isEmpty())
+            return null;
+        Class<?> source = Primitives.wrap(sourceType);
+        Class<?> target = Primitives.wrap(targetType);
+
+        FieldFormatter formatter = formatters.get(new Key(businessFieldName, source, target));
+        if (formatter == null)
+            formatter = formatters.get(new Key(businessFieldName, null, null));
+        if (formatter == null)
+            formatter = formatters.get(new Key(null, source, target));
+        return formatter;
+    }
+}
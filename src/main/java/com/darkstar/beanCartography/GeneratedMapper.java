@@ -0,0 +1,55 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+/**
+ * This interface is implemented by the mappers the annotation processor generates for a source and target class
+ * pair.  They are found through the ServiceLoader and copy the named fields directly without any reflection.
+ *
+ * @param <S> source class
+ * @param <T> target class
+ * @author michael snavely
+ */
+public interface GeneratedMapper<S, T> {
+
+    /**
+     * @return the class mapped from
+     */
+    public Class<S> getSourceClass();
+
+    /**
+     * @return the class mapped to
+     */
+    public Class<T> getTargetClass();
+
+    /**
+     * @return the business names of the fields copied, in the order their formatters are passed to the mapper
+     */
+    public String[] getBusinessNames();
+
+    /**
+     * Copy the named fields of the source object to the target object.
+     *
+     * @param source object containing named field values to copy
+     * @param target object that will serve as the target of the copy
+     * @param formatters the formatter of each business name copied (<code>null</code> if there is none) in the order
+     *                   of {@link #getBusinessNames()}
+     * @throws RuntimeException if a formatter or a copy fails, nothing is swallowed
+     */
+    public void map(S source, T target, FieldFormatter[] formatters);
+}
@@ -0,0 +1,131 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import com.darkstar.beanCartography.utils.ClassMetadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+
+/**
+ * This class keeps the generated mappers found through the ServiceLoader by source class.  A generated mapper copies
+ * the named fields of its source class straight to its target class so it is only used when both classes are flat:
+ * named classes without composites whose named fields are all terminal and whose other fields can never lead to a
+ * business name.  Anything else is left to the name matching.
+ * <p>
+ * The mappers registered for a class loader are looked up once and remembered by the names of their source classes,
+ * so no matter how many classes a loader has, the ServiceLoader only goes through its registrations once.
+ *
+ * @author michael snavely
+ */
+class GeneratedMappers {
+
+    // class loader to source class name to the names of the mapper classes registered for it (names only so the
+    // loaders can still be collected)...
+    private static final Map<ClassLoader, Map<String, List<String>>> registrations = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // source class to target class to generated mapper...
+    private static final ClassValue<Map<Class<?>, GeneratedMapper<?, ?>>> registry = new ClassValue<Map<Class<?>, GeneratedMapper<?, ?>>>() {
+        @Override
+        protected Map<Class<?>, GeneratedMapper<?, ?>> computeValue(Class<?> type) {
+            Map<Class<?>, GeneratedMapper<?, ?>> mappers = new HashMap<>();
+            ClassLoader loader = type.getClassLoader();
+            if (loader == null || !isFlat(type))
+                return mappers;
+
+            for (String name : getRegistrations(loader).getOrDefault(type.getName(), Collections.emptyList())) {
+                try {
+                    GeneratedMapper<?, ?> mapper = (GeneratedMapper<?, ?>) Class.forName(name, true, loader).getDeclaredConstructor().newInstance();
+                    if (type.equals(mapper.getSourceClass()) && isFlat(mapper.getTargetClass()))
+                        mappers.put(mapper.getTargetClass(), mapper);
+                } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+                    // a mapper that cannot be created is left to the name matching...
+                }
+            }
+            return mappers;
+        }
+    };
+
+    /**
+     * Go through the mappers registered for a class loader once.  A registration that cannot be loaded only costs
+     * that one mapper.
+     *
+     * @param loader class loader to look up the mappers of
+     * @return source class name to the names of its mapper classes
+     */
+    @SuppressWarnings("rawtypes")
+    private static Map<String, List<String>> getRegistrations(ClassLoader loader) {
+        synchronized (registrations) {
+            Map<String, List<String>> names = registrations.get(loader);
+            if (names != null)
+                return names;
+
+            names = new HashMap<>();
+            Iterator<GeneratedMapper> mappers = ServiceLoader.load(GeneratedMapper.class, loader).iterator();
+            while (true) {
+                try {
+                    if (!mappers.hasNext())
+                        break;
+                    GeneratedMapper<?, ?> mapper = mappers.next();
+                    names.computeIfAbsent(mapper.getSourceClass().getName(), k -> new ArrayList<>()).add(mapper.getClass().getName());
+                } catch (ServiceConfigurationError | RuntimeException e) {
+                    // skip the bad registration and go on with the next one...
+                }
+            }
+            registrations.put(loader, names);
+            return names;
+        }
+    }
+
+    private GeneratedMappers() {
+        super();
+    }
+
+    /**
+     * @param sourceClass class mapped from
+     * @param targetClass class mapped to
+     * @return the generated mapper for the pair or <code>null</code> if there is none
+     */
+    @SuppressWarnings("unchecked")
+    static GeneratedMapper<Object, Object> find(Class<?> sourceClass, Class<?> targetClass) {
+        return (GeneratedMapper<Object, Object>) registry.get(sourceClass).get(targetClass);
+    }
+
+    /**
+     * @param clazz class to check
+     * @return <code>true</code> if the class can be mapped without looking past its own named fields
+     */
+    static boolean isFlat(Class<?> clazz) {
+        ClassMetadata metadata = ClassMetadata.of(clazz);
+        if (!metadata.hasBusinessName() || metadata.hasBusinessComposites())
+            return false;
+        for (ClassMetadata.FieldMetadata field : metadata.getFields()) {
+            // an unnamed field declared as anything that can be extended may hold a named subclass...
+            if (field.hasBusinessName() ? !NamePointerBean.NAME_TYPE.TERMINAL.equals(field.getNameType()) : field.canReachBusinessNames())
+                return false;
+        }
+        return true;
+    }
+}
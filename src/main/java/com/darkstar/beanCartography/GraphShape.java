@@ -0,0 +1,269 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import com.darkstar.beanCartography.utils.ClassMetadata;
+import com.darkstar.beanCartography.utils.NameUtils;
+import com.google.common.base.Preconditions;
+
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+
+/**
+ * This class captures the shape of an object graph as the name mapping process sees it: the objects reachable from
+ * a root through named fields (in the same order the Finder would discover them) along with a signature describing
+ * the graph.  Two graphs having equal signatures produce the same business name maps, so a mapping plan compiled
+ * against one of them can be replayed against the other.
+ * <p>
+ * A shape can only be taken when the named fields are the only way to reach a named object.  If an object along the
+ * way could hide a named object somewhere the Finder would look but this walk would not, no shape is returned.
+ * Arrays, collections, and maps are described by their kind.  The Finder matches the names found inside source
+ * containers against the whole target so the elements of a source container that could carry a business name are
+ * part of the graph too, each one described like any other object.  Elements that can never be named are left out.
+ *
+ * @author michael snavely
+ */
+class GraphShape {
+
+    // containers the Finder cannot see into when it is not processing arrays, collections, and maps...
+    private static final Set<Class<?>> opaqueContainers = new HashSet<>();
+    static {
+        opaqueContainers.add(ArrayList.class);
+        opaqueContainers.add(Vector.class);
+        opaqueContainers.add(ArrayDeque.class);
+        opaqueContainers.add(HashMap.class);
+        opaqueContainers.add(HashSet.class);
+    }
+
+    private final String signature;
+    private final List<Object> nodes;
+
+    /**
+     * Constructor
+     *
+     * @param signature signature describing the graph
+     * @param nodes objects visited in discovery order
+     */
+    private GraphShape(String signature, List<Object> nodes) {
+        super();
+        this.signature = signature;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Take the shape of the graph starting at the root object.
+     *
+     * @param root object to start from
+     * @param source <code>true</code> if the graph is the source of a mapping
+     * @return the shape of the graph or <code>null</code> if the graph cannot be described by its named fields
+     */
+    static GraphShape of(Object root, boolean source) {
+        Preconditions.checkNotNull(root, "root cannot be null");
+
+        // a container has nothing but elements so there would be nothing left to describe...
+        if (isContainer(root))
+            return null;
+
+        StringBuilder signature = new StringBuilder();
+        List<Object> nodes = new ArrayList<>();
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> queue = new ArrayDeque<>();
+        queue.add(root);
+
+        // breadth first just like the Finder so the named objects come out in the same order...
+        while (!queue.isEmpty()) {
+            Object node = queue.poll();
+            if (!visited.add(node)) {
+                signature.append('^');
+                continue;
+            }
+            if (!addNode(node, signature, nodes, queue, source))
+                return null;
+        }
+        return new GraphShape(signature.toString(), nodes);
+    }
+
+    /**
+     * Take the shape of an object of a flat class: a named class without composites whose named fields are all
+     * terminal and whose other fields can never lead to a business name.  Such an object is the whole graph and every
+     * object of the class has the same shape, so there is nothing to walk and no signature is built.
+     *
+     * @param root object of a flat class
+     * @return the shape of the object
+     */
+    static GraphShape ofFlat(Object root) {
+        Preconditions.checkNotNull(root, "root cannot be null");
+        return new GraphShape("", Collections.singletonList(root));
+    }
+
+    /**
+     * @param signature signature describing the graph
+     * @param nodes named objects of the graph in discovery order
+     * @return the shape of a graph worked out some other way (i.e. from the layout of a target class)
+     */
+    static GraphShape ofNodes(String signature, List<Object> nodes) {
+        Preconditions.checkNotNull(signature, "signature cannot be null");
+        Preconditions.checkNotNull(nodes, "nodes cannot be null");
+        return new GraphShape(signature, nodes);
+    }
+
+    /**
+     * @return signature describing the graph
+     */
+    String getSignature() {
+        return signature;
+    }
+
+    /**
+     * @return objects visited in discovery order
+     */
+    List<Object> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Describe a single object and queue up the objects its named fields point to.
+     *
+     * @return <code>false</code> if the object could hide a named object from this walk
+     */
+    private static boolean addNode(Object node, StringBuilder signature, List<Object> nodes, Deque<Object> queue, boolean source) {
+        Class<?> clazz = node.getClass();
+        signature.append('<').append(clazz.getName());
+
+        // the jdk does not carry named fields so its value types are leaves unless they can hold any object at all
+        // (Optional, AtomicReference, etc.)...
+        if (clazz.getClassLoader() == null) {
+            signature.append('>');
+            return !NameUtils.canInstanceReachBusinessNames(clazz);
+        }
+
+        nodes.add(node);
+        for (ClassMetadata.FieldMetadata field : ClassMetadata.of(clazz).getFields()) {
+            if (!field.hasBusinessName()) {
+                // the Finder skips whatever cannot lead to a business name but the declared type alone cannot rule
+                // out a named subclass so whatever the field really holds is checked too...
+                if (field.canReachBusinessNames()) {
+                    Object value = field.getAccessor().get(node);
+                    if (value != null && NameUtils.canInstanceReachBusinessNames(value.getClass()))
+                        return false;
+                }
+                continue;
+            }
+
+            // terminal fields never lead anywhere so their values are not even read...
+            if (NamePointerBean.NAME_TYPE.TERMINAL.equals(field.getNameType())) {
+                signature.append('t');
+                continue;
+            }
+
+            Object value = field.getAccessor().get(node);
+            if (value != null && isContainer(value)) {
+                if (!addContainer(field, value, signature, queue, source))
+                    return false;
+            } else if (value == null)
+                signature.append('n');
+            else if (NameUtils.isImmutable(value.getClass()))
+                signature.append('l');
+            else {
+                signature.append('b');
+                queue.add(value);
+            }
+        }
+        signature.append('>');
+        return true;
+    }
+
+    /**
+     * Describe an array, collection, or map by its kind and queue up the elements of a source container that could
+     * carry a business name.
+     *
+     * @return <code>false</code> if the container could hide a named object from this walk
+     */
+    private static boolean addContainer(ClassMetadata.FieldMetadata field, Object container, StringBuilder signature, Deque<Object> queue, boolean source) {
+        Class<?> clazz = container.getClass();
+        signature.append(clazz.isArray() ? 'a' : container instanceof Collection<?> ? 'c' : 'm');
+
+        // the Finder does not look inside target containers but it still walks the container itself...
+        if (!source)
+            return clazz.isArray() || opaqueContainers.contains(clazz) || isEmpty(container);
+
+        // a home grown container could have named fields of its own...
+        if (!clazz.isArray() && clazz.getClassLoader() != null)
+            return false;
+
+        // the declared element types usually rule out any names without looking at the elements at all...
+        signature.append('[');
+        if (clazz.isArray()) {
+            Class<?> componentType = clazz.getComponentType();
+            if (!componentType.isPrimitive() && NameUtils.canReachBusinessNames(componentType))
+                for (int i = 0; i < Array.getLength(container); i++)
+                    if (!addElement(Array.get(container, i), signature, queue))
+                        return false;
+        } else if (container instanceof Collection<?>) {
+            if (NameUtils.canReachBusinessNames(field.getElementType()))
+                for (Object element : (Collection<?>) container)
+                    if (!addElement(element, signature, queue))
+                        return false;
+        } else {
+            boolean keys = NameUtils.canReachBusinessNames(field.getKeyType());
+            boolean values = NameUtils.canReachBusinessNames(field.getValueType());
+            if (keys || values)
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) container).entrySet())
+                    if ((keys && !addElement(entry.getKey(), signature, queue)) || (values && !addElement(entry.getValue(), signature, queue)))
+                        return false;
+        }
+        signature.append(']');
+        return true;
+    }
+
+    /**
+     * Queue up a container element.  Elements that can never carry a business name do not change the shape.
+     *
+     * @return <code>false</code> if the element is itself a container
+     */
+    private static boolean addElement(Object element, StringBuilder signature, Deque<Object> queue) {
+        if (element == null || !NameUtils.canInstanceReachBusinessNames(element.getClass()))
+            return true;
+        if (isContainer(element))
+            return false;
+        signature.append('e');
+        queue.add(element);
+        return true;
+    }
+
+    private static boolean isContainer(Object o) {
+        return o.getClass().isArray() || o instanceof Collection<?> || o instanceof Map<?, ?>;
+    }
+
+    private static boolean isEmpty(Object container) {
+        if (container instanceof Collection<?>)
+            return ((Collection<?>) container).isEmpty();
+        return ((Map<?, ?>) container).isEmpty();
+    }
+}
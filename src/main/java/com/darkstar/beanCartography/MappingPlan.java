@@ -0,0 +1,244 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import com.darkstar.beanCartography.utils.ClassMetadata;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A mapping plan is the resolved list of field copies for one source graph shape and one target graph shape.  It is
+ * recorded while the name matching runs the first time and replayed for every graph of the same shape afterwards,
+ * so the business names only have to be matched once.
+ *
+ * @author michael snavely
+ */
+class MappingPlan {
+
+    /**
+     * This is used to copy the contents of a single named field from a source object to a target object.
+     */
+    interface FieldCopier {
+
+        /**
+         * @param targetInstance object containing the target field
+         * @param targetNameBean target name bean
+         * @param sourceNameBean source name bean
+         */
+        void copy(Object targetInstance, NamePointerBean targetNameBean, NamePointerBean sourceNameBean);
+    }
+
+    /**
+     * A single copy from a field of a source object to a field of a target object, set up once for the pair of fields.
+     */
+    interface DirectCopy {
+
+        /**
+         * @param source source graph node
+         * @param target target graph node
+         */
+        void copy(Object source, Object target);
+    }
+
+    /**
+     * A single copy from a field of a source graph node to a field of a target graph node.
+     */
+    private static class Step {
+        private final int sourceNode;
+        private final ClassMetadata.FieldMetadata sourceField;
+        private final int targetNode;
+        private final ClassMetadata.FieldMetadata targetField;
+        private final boolean terminal;
+
+        private Step(int sourceNode, ClassMetadata.FieldMetadata sourceField, int targetNode, ClassMetadata.FieldMetadata targetField) {
+            this.sourceNode = sourceNode;
+            this.sourceField = sourceField;
+            this.targetNode = targetNode;
+            this.targetField = targetField;
+            this.terminal = NamePointerBean.NAME_TYPE.TERMINAL.equals(sourceField.getNameType()) &&
+                    NamePointerBean.NAME_TYPE.TERMINAL.equals(targetField.getNameType());
+        }
+
+        /**
+         * @return the copy of the terminal fields through their formatter or <code>null</code> if the copy is not terminal
+         */
+        private DirectCopy resolve(FormatterRegistry formatters) {
+            if (!terminal)
+                return null;
+            FieldFormatter formatter = formatters.resolve(targetField.getBusinessName(), sourceField.getField().getType(), targetField.getField().getType());
+            return FormattedCopy.compile(formatter, sourceField.getAccessor(), targetField.getAccessor());
+        }
+    }
+
+    /**
+     * This class records the copies made while matching names so they can be turned into a plan.
+     */
+    static class Recorder implements FieldCopier {
+        private final Map<Object, Integer> sourceNodes;
+        private final Map<Object, Integer> targetNodes;
+        private final FieldCopier copier;
+        private final List<Step> steps = new ArrayList<>();
+        private boolean complete = true;
+
+        /**
+         * Constructor
+         *
+         * @param sourceShape shape of the source graph
+         * @param targetShape shape of the target graph
+         * @param copier copier performing the actual copies
+         */
+        Recorder(GraphShape sourceShape, GraphShape targetShape, FieldCopier copier) {
+            super();
+            this.sourceNodes = index(sourceShape.getNodes());
+            this.targetNodes = index(targetShape.getNodes());
+            this.copier = copier;
+        }
+
+        @Override
+        public void copy(Object targetInstance, NamePointerBean targetNameBean, NamePointerBean sourceNameBean) {
+            Integer sourceNode = sourceNodes.get(sourceNameBean.getFieldContainer());
+            Integer targetNode = targetNodes.get(targetInstance);
+            if (sourceNode == null || targetNode == null)
+                complete = false;
+            else
+                steps.add(new Step(sourceNode, ClassMetadata.of(sourceNameBean.getField()), targetNode, ClassMetadata.of(targetNameBean.getField())));
+            copier.copy(targetInstance, targetNameBean, sourceNameBean);
+        }
+
+        /**
+         * @return the recorded plan or <code>null</code> if a copy was made that cannot be replayed
+         */
+        MappingPlan toPlan() {
+            return complete ? new MappingPlan(steps) : null;
+        }
+
+        private static Map<Object, Integer> index(List<Object> nodes) {
+            Map<Object, Integer> index = new IdentityHashMap<>();
+            for (int i = 0; i < nodes.size(); i++)
+                index.put(nodes.get(i), i);
+            return index;
+        }
+    }
+
+    /**
+     * The terminal copy of each step along with the version of the formatters they were resolved from.
+     */
+    private static class Resolved {
+        private final int formattersVersion;
+        private final DirectCopy[] copies;
+
+        private Resolved(int formattersVersion, DirectCopy[] copies) {
+            this.formattersVersion = formattersVersion;
+            this.copies = copies;
+        }
+    }
+
+    private final List<Step> steps;
+    private volatile Resolved resolved = null;
+
+    /**
+     * Constructor
+     *
+     * @param steps copies to make in order
+     */
+    private MappingPlan(List<Step> steps) {
+        super();
+        this.steps = steps;
+    }
+
+    /**
+     * Replay the plan against graphs having the shapes the plan was recorded for.  Copies from one terminal field to
+     * another go through the field accessors running the formatter resolved for the step (the copy is set up on the
+     * first call and again if formatters have been added since) and anything else (i.e. containers) goes through the
+     * copier.
+     *
+     * @param sourceShape shape of the source graph
+     * @param targetShape shape of the target graph
+     * @param formatters formatters to resolve each step's formatter from
+     * @param copier copier performing the copies that are not terminal
+     */
+    void apply(GraphShape sourceShape, GraphShape targetShape, FormatterRegistry formatters, FieldCopier copier) {
+        DirectCopy[] copies = getCopies(formatters);
+        List<Object> sourceNodes = sourceShape.getNodes();
+        List<Object> targetNodes = targetShape.getNodes();
+        for (int i = 0; i < copies.length; i++) {
+            Step step = steps.get(i);
+            copy(step, copies[i], sourceNodes.get(step.sourceNode), targetNodes.get(step.targetNode), copier);
+        }
+    }
+
+    /**
+     * Replay a plan recorded for a pair of flat classes, where every copy goes from the source object to the target
+     * object, without taking the shapes of the objects.
+     *
+     * @param source source object
+     * @param target target object
+     * @param formatters formatters to resolve each step's formatter from
+     * @param copier copier performing the copies that are not terminal
+     */
+    void applyFlat(Object source, Object target, FormatterRegistry formatters, FieldCopier copier) {
+        DirectCopy[] copies = getCopies(formatters);
+        for (int i = 0; i < copies.length; i++)
+            copy(steps.get(i), copies[i], source, target, copier);
+    }
+
+    /**
+     * @return the terminal copy of each step resolved as of the current version of the formatters
+     */
+    private DirectCopy[] getCopies(FormatterRegistry formatters) {
+        Resolved current = resolved;
+        int version = formatters.getVersion();
+        if (current == null || current.formattersVersion != version)
+            resolved = current = new Resolved(version, resolve(formatters));
+        return current.copies;
+    }
+
+    /**
+     * Make the copy of one step.
+     */
+    private static void copy(Step step, DirectCopy terminalCopy, Object source, Object target, FieldCopier copier) {
+        if (terminalCopy == null) {
+            try {
+                copier.copy(target, new NamePointerBean(target, step.targetField), new NamePointerBean(source, step.sourceField));
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+            return;
+        }
+
+        try {
+            terminalCopy.copy(source, target);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @param formatters formatters to resolve each step's formatter from
+     * @return the terminal copy of each step, <code>null</code> where the step is not terminal
+     */
+    private DirectCopy[] resolve(FormatterRegistry formatters) {
+        DirectCopy[] copies = new DirectCopy[steps.size()];
+        for (int i = 0; i < copies.length; i++)
+            copies[i] = steps.get(i).resolve(formatters);
+        return copies;
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * This class is a Flow processor that maps each source it receives into a new target and publishes the targets, in
+ * order, to a single subscriber.  Upstream demand is requested in batches: one batch up front and another each time
+ * a whole batch has been mapped, so no more than a batch of sources is ever buffered.  Sources are only mapped when
+ * the subscriber has asked for them and the mapping is done on the executor one element at a time, so a processor
+ * never holds more than one of the executor's threads.
+ *
+ * @author michael snavely
+ */
+public class MappingProcessor<S, T> implements Flow.Processor<S, T> {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final Cartographer cartographer;
+    private final Supplier<? extends T> targetFactory;
+    private final Executor executor;
+    private final int batchSize;
+
+    private final Queue<S> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger pendingDrains = new AtomicInteger();
+    private final AtomicReference<Flow.Subscriber<? super T>> downstream = new AtomicReference<>();
+    private volatile Flow.Subscription upstream = null;
+    private volatile boolean subscribed = false; // downstream onSubscribe has returned
+    private volatile boolean done = false;
+    private volatile Throwable error = null;
+    private volatile boolean cancelled = false;
+
+    // only touched while draining...
+    private long emitted = 0L;
+    private int consumed = 0;
+    private boolean terminated = false;
+
+    /**
+     * This is used to configure a MappingProcessor.
+     *
+     * @author michael snavely
+     */
+    public static class Builder<S, T> {
+        private final Cartographer cartographer;
+        private final Supplier<? extends T> targetFactory;
+        private Executor executor = ForkJoinPool.commonPool();
+        private int batchSize = DEFAULT_BATCH_SIZE;
+
+        /**
+         * @param cartographer cartographer to map with
+         * @param targetFactory creates a new target for each source
+         */
+        public Builder(Cartographer cartographer, Supplier<? extends T> targetFactory) {
+            super();
+            this.cartographer = Preconditions.checkNotNull(cartographer, "cartographer cannot be null");
+            this.targetFactory = Preconditions.checkNotNull(targetFactory, "targetFactory cannot be null");
+        }
+
+        /**
+         * @param executor executor to map on (defaults to the common fork join pool)
+         */
+        public Builder<S, T> executor(Executor executor) {
+            this.executor = Preconditions.checkNotNull(executor, "executor cannot be null");
+            return this;
+        }
+
+        /**
+         * @param batchSize number of sources requested from upstream at a time
+         */
+        public Builder<S, T> batchSize(int batchSize) {
+            Preconditions.checkArgument(batchSize > 0, "batchSize must be positive");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public MappingProcessor<S, T> build() {
+            return new MappingProcessor<>(this);
+        }
+    }
+
+    /**
+     * MappingProcessor constructor from builder
+     *
+     * @param builder
+     */
+    private MappingProcessor(Builder<S, T> builder) {
+        super();
+        this.cartographer = builder.cartographer;
+        this.targetFactory = builder.targetFactory;
+        this.executor = builder.executor;
+        this.batchSize = builder.batchSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Preconditions.checkNotNull(subscriber, "subscriber cannot be null");
+        if (!downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("MappingProcessor only allows one subscriber"));
+            return;
+        }
+
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                if (n <= 0) {
+                    error = new IllegalArgumentException("request must be positive: " + n);
+                    done = true;
+                    cancelUpstream();
+                } else
+                    requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                cancelUpstream();
+                drain();
+            }
+        });
+        subscribed = true;
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Preconditions.checkNotNull(subscription, "subscription cannot be null");
+        if (upstream != null || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(S item) {
+        Preconditions.checkNotNull(item, "item cannot be null");
+        if (done || cancelled)
+            return;
+        buffer.offer(item);
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Preconditions.checkNotNull(throwable, "throwable cannot be null");
+        if (done)
+            return;
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    private void cancelUpstream() {
+        Flow.Subscription subscription = upstream;
+        if (subscription != null)
+            subscription.cancel();
+    }
+
+    /**
+     * Make sure a drain is running.  Whoever finds no drain pending starts one on the executor, everyone else just
+     * leaves their signal for that drain to pick up.
+     */
+    private void drain() {
+        if (pendingDrains.getAndIncrement() != 0)
+            return;
+        try {
+            executor.execute(this::drainLoop);
+        } catch (RejectedExecutionException e) {
+            cancelled = true;
+            cancelUpstream();
+            Flow.Subscriber<? super T> subscriber = downstream.get();
+            if (subscriber != null && subscribed)
+                subscriber.onError(e);
+        }
+    }
+
+    /**
+     * Map as many buffered sources as the subscriber has asked for, ask upstream for more whenever a whole batch has
+     * been mapped, and pass on completion once the buffer is empty.
+     */
+    private void drainLoop() {
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super T> subscriber = downstream.get();
+            if (cancelled || terminated)
+                buffer.clear();
+            else if (subscriber != null && subscribed)
+                emit(subscriber);
+            missed = pendingDrains.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void emit(Flow.Subscriber<? super T> subscriber) {
+        long limit = requested.get();
+        while (emitted != limit && !cancelled && error == null) {
+            S source = buffer.poll();
+            if (source == null)
+                break;
+
+            T target;
+            try {
+                target = targetFactory.get();
+                cartographer.mapObject(source, target);
+            } catch (Exception e) {
+                terminated = true;
+                cancelUpstream();
+                buffer.clear();
+                subscriber.onError(e);
+                return;
+            }
+            subscriber.onNext(target);
+            emitted++;
+
+            if (++consumed == batchSize) {
+                consumed = 0;
+                upstream.request(batchSize);
+            }
+        }
+
+        // errors do not wait for the buffer, completion does...
+        if (!cancelled && done && (error != null || buffer.isEmpty())) {
+            terminated = true;
+            buffer.clear();
+            if (error != null)
+                subscriber.onError(error);
+            else
+                subscriber.onComplete();
+        }
+    }
+}
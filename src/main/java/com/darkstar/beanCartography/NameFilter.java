@@ -17,21 +17,57 @@
  */
 package com.darkstar.beanCartography;
 
+import com.darkstar.beanCartography.utils.ClassMetadata;
 import com.darkstar.beanCartography.utils.NameUtils;
 import com.darkstar.beanCartography.utils.finder.Filter;
 
+import com.google.common.base.Preconditions;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * This class will accept only those classes that are annotated at the class or field level with business names.
+ * <p>
+ * A filter can also be limited to a set of business names (i.e. the names a target needs).  The search then skips
+ * whatever cannot lead to one of them.  The answers are kept by the filter so reuse it for the same names.
  *
  * @author michael snavely
  */
 public class NameFilter implements Filter {
 
+    private final Set<String> names; // null for any name
+    private final Map<Class<?>, Boolean> classReach = new ConcurrentHashMap<>();
+    private final Map<Field, Boolean> fieldReach = new ConcurrentHashMap<>();
+
     /**
      * Constructor
      */
     public NameFilter() {
         super();
+        this.names = null;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param names business class, composite, and field names to search for
+     */
+    public NameFilter(Set<String> names) {
+        super();
+        Preconditions.checkNotNull(names, "names cannot be null");
+        this.names = Collections.unmodifiableSet(new HashSet<>(names));
+    }
+
+    /**
+     * @return the names searched for or <code>null</code> if any name is
+     */
+    public Set<String> getNames() {
+        return names;
     }
 
     /**
@@ -47,5 +83,26 @@ public class NameFilter implements Filter {
                 NameUtils.hasBusinessComposites(o.getClass()) ||
                 NameUtils.hasFieldBusinessNames(o));
     }
-}
 
+    /**
+     * @param type class of the object to search
+     * @return <code>false</code> if no business name (of those searched for) can be found from an object of this class
+     */
+    @Override
+    public boolean canReach(Class<?> type) {
+        if (names == null)
+            return NameUtils.canInstanceReachBusinessNames(type);
+        return classReach.computeIfAbsent(type, t -> NameUtils.canInstanceReachBusinessNames(t, names));
+    }
+
+    /**
+     * @param field field holding the object to search
+     * @return <code>false</code> if no business name (of those searched for) can be found from a value of this field
+     */
+    @Override
+    public boolean canReach(Field field) {
+        if (names == null)
+            return ClassMetadata.of(field).canReachBusinessNames();
+        return fieldReach.computeIfAbsent(field, f -> ClassMetadata.of(f).canReachBusinessNames() && NameUtils.canReachBusinessNames(f.getGenericType(), names));
+    }
+}
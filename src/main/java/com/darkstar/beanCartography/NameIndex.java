@@ -0,0 +1,164 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import com.darkstar.beanCartography.utils.finder.Finder;
+import com.google.common.base.Preconditions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * This class indexes the named objects of a source graph by business name.  Class names lead to the named class beans
+ * carrying them and field names lead to the first name pointer having them (in the order Cartographer searches them)
+ * so a target name is resolved with a single lookup.
+ * <p>
+ * While Cartographer maps an object the index of its source is also handed to the formatters that ask for it (see
+ * {@link FieldFormatter.WithSource}).
+ *
+ * @author michael snavely
+ */
+public class NameIndex {
+
+    // the source index of the mapping running on each thread, worked out the first time a formatter asks for it...
+    private static final ThreadLocal<Supplier<NameIndex>> current = new ThreadLocal<>();
+
+    private final Map<String, List<NamedClassBean>> classBeans;
+    private final Map<String, NamePointerBean> fields = new HashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param nameMap business class name to named class beans (i.e. from a NameInterceptor)
+     */
+    public NameIndex(Map<String, List<NamedClassBean>> nameMap) {
+        super();
+        Preconditions.checkNotNull(nameMap, "nameMap cannot be null");
+        this.classBeans = nameMap;
+        for (List<NamedClassBean> beans : nameMap.values())
+            for (NamedClassBean bean : beans)
+                for (NamePointerBean field : bean.getFields())
+                    fields.putIfAbsent(field.getName(), field);
+    }
+
+    /**
+     * Index every named object that can be found from a root object.
+     *
+     * @param root object to search
+     * @param includeContainers <code>true</code> if arrays, collections, and maps should be searched
+     * @return the index
+     */
+    public static NameIndex of(Object root, boolean includeContainers) {
+        Preconditions.checkNotNull(root, "root cannot be null");
+        Finder finder = new Finder(includeContainers, includeContainers, includeContainers);
+        NameInterceptor interceptor = new NameInterceptor();
+        finder.addFilterIntecepter(new NameFilter(), interceptor);
+        finder.find(root);
+        return new NameIndex(interceptor.getNameToBusinessClassMap());
+    }
+
+    /**
+     * Like {@link #of(Object, boolean)} but nothing is searched until the index is first asked for.
+     *
+     * @param root object to search
+     * @param includeContainers <code>true</code> if arrays, collections, and maps should be searched
+     * @return supplier of the index, searching at most once
+     */
+    static Supplier<NameIndex> lazilyOf(Object root, boolean includeContainers) {
+        Preconditions.checkNotNull(root, "root cannot be null");
+        NameIndex[] index = new NameIndex[1];
+        return () -> {
+            if (index[0] == null)
+                index[0] = of(root, includeContainers);
+            return index[0];
+        };
+    }
+
+    /**
+     * Make an index the one formatters get on this thread until {@link #exit(Supplier)} is called.
+     *
+     * @param index supplier of the index of the source being mapped
+     * @return the index of the mapping this one is nested in (if any) to restore afterwards
+     */
+    static Supplier<NameIndex> enter(Supplier<NameIndex> index) {
+        Supplier<NameIndex> previous = current.get();
+        current.set(index);
+        return previous;
+    }
+
+    /**
+     * @param previous what {@link #enter(Supplier)} returned
+     */
+    static void exit(Supplier<NameIndex> previous) {
+        if (previous == null)
+            current.remove();
+        else
+            current.set(previous);
+    }
+
+    /**
+     * @return the index of the source being mapped on this thread or <code>null</code> if nothing is being mapped
+     */
+    static NameIndex current() {
+        Supplier<NameIndex> index = current.get();
+        return index == null ? null : index.get();
+    }
+
+    /**
+     * @param businessName business class name
+     * @return <code>true</code> if a named class has the name
+     */
+    public boolean hasClassBeans(String businessName) {
+        return classBeans.containsKey(businessName);
+    }
+
+    /**
+     * @param businessName business class name
+     * @return the named class beans having the name or <code>null</code> if there are none
+     */
+    public List<NamedClassBean> getClassBeans(String businessName) {
+        List<NamedClassBean> beans = classBeans.get(businessName);
+        return beans == null ? null : Collections.unmodifiableList(beans);
+    }
+
+    /**
+     * @param businessName business field name
+     * @return the first name pointer having the name or <code>null</code> if there is none
+     */
+    public NamePointerBean getField(String businessName) {
+        return fields.get(businessName);
+    }
+
+    /**
+     * @return all business class names
+     */
+    public Set<String> getClassNames() {
+        return Collections.unmodifiableSet(classBeans.keySet());
+    }
+
+    /**
+     * @return all business field names
+     */
+    public Set<String> getFieldNames() {
+        return Collections.unmodifiableSet(fields.keySet());
+    }
+}
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This is Intercept processing for classes that contain named fields.
@@ -34,6 +35,9 @@ public class NameInterceptor implements Interceptor {
     // keeps the business name hierarchy...
     private Map<String, List<NamedClassBean>> nameToBusinessClassMap  = null;
 
+    // business names of the fields to read (null for all of them)...
+    private Set<String> fieldNames = null;
+
     /**
      * Constructor
      */
@@ -42,6 +46,16 @@ public class NameInterceptor implements Interceptor {
         nameToBusinessClassMap = new HashMap<>();
     }
 
+    /**
+     * Constructor
+     *
+     * @param fieldNames business names of the fields to read from each named class or <code>null</code> for all
+     */
+    public NameInterceptor(Set<String> fieldNames) {
+        this();
+        this.fieldNames = fieldNames;
+    }
+
     /**
      * Collect all named classes under their name.
      *
@@ -50,7 +64,7 @@ public class NameInterceptor implements Interceptor {
     @Override
     public void intercept(Object o) {
         try {
-            NamedClassBean bean = new NamedClassBean(o);
+            NamedClassBean bean = new NamedClassBean(o, fieldNames);
             List<NamedClassBean> beans = nameToBusinessClassMap.get(bean.getName());
             if (beans == null) {
                 beans = new ArrayList<>();
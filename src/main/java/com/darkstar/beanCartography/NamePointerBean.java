@@ -17,12 +17,11 @@
  */
 package com.darkstar.beanCartography;
 
-import com.darkstar.beanCartography.utils.NameUtils;
+import com.darkstar.beanCartography.utils.ClassMetadata;
+import com.darkstar.beanCartography.utils.FieldAccessor;
 import com.google.common.base.Preconditions;
 
 import java.lang.reflect.Field;
-import java.util.Collection;
-import java.util.Map;
 
 /**
  * This class encapsulates the information for a field that has the named field annotation on it.
@@ -40,6 +39,9 @@ public class NamePointerBean {
     private NAME_TYPE type        = null;
     private Object instance       = null; // points to the field contents
     private Field field           = null;
+    private ClassMetadata.FieldMetadata fieldMetadata = null;
+    private FieldAccessor accessor = null;
+    private boolean loaded        = true; // terminal field values are only read when asked for
 
     private Object fieldContainer = null;
 
@@ -58,27 +60,36 @@ public class NamePointerBean {
      * @throws IllegalAccessException
      */
     public NamePointerBean(Object fieldContainer, Field field) throws IllegalAccessException {
+        this(fieldContainer, ClassMetadata.of(Preconditions.checkNotNull(field, "field cannot be null")));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param fieldContainer object containing the field
+     * @param fieldMetadata metadata of the field to use
+     * @throws IllegalAccessException
+     */
+    public NamePointerBean(Object fieldContainer, ClassMetadata.FieldMetadata fieldMetadata) throws IllegalAccessException {
         super();
         Preconditions.checkNotNull(fieldContainer, "fieldContainer cannot be null");
-        Preconditions.checkNotNull(field, "field cannot be null");
-        Preconditions.checkArgument(NameUtils.hasBusinessName(field), "passed field does not have a name associated with it! "+field.getName());
+        Preconditions.checkNotNull(fieldMetadata, "fieldMetadata cannot be null");
+        Preconditions.checkArgument(fieldMetadata.hasBusinessName(), "passed field does not have a name associated with it! "+fieldMetadata.getField().getName());
 
         this.fieldContainer = fieldContainer;
-        this.field = field;
-        this.name = NameUtils.getBusinessName(field);
-        field.setAccessible(true);
-        this.instance = field.get(fieldContainer);
-
-        if (instance != null && instance.getClass().isArray())
-            type = NAME_TYPE.ARRAY;
-        else if (instance instanceof Collection<?>)
-            type = NAME_TYPE.COLLECTION;
-        else if (instance instanceof Map<?, ?>)
-            type = NAME_TYPE.MAP;
-        else if (NameUtils.isImmutable(field.getType()))
-            type = NAME_TYPE.TERMINAL;
-        else
-            type = NAME_TYPE.BUSINESS_CLASS;
+        this.field = fieldMetadata.getField();
+        this.fieldMetadata = fieldMetadata;
+        this.accessor = fieldMetadata.getAccessor();
+        this.name = fieldMetadata.getBusinessName();
+
+        // terminal fields are terminal whatever their value so leave reading them (and boxing primitives) until needed...
+        if (NAME_TYPE.TERMINAL.equals(fieldMetadata.getNameType())) {
+            this.type = NAME_TYPE.TERMINAL;
+            this.loaded = false;
+        } else {
+            this.instance = accessor.get(fieldContainer);
+            this.type = fieldMetadata.getNameType(instance);
+        }
     }
 
     @Override
@@ -116,26 +127,37 @@ public class NamePointerBean {
     }
 
     public Object getInstance() {
+        if (!loaded) {
+            instance = accessor.get(fieldContainer);
+            loaded = true;
+        }
         return instance;
     }
 
     public void setInstance(Object instance) {
         this.instance = instance;
+        this.loaded = true;
         try {
-            field.set(fieldContainer, instance);
-        } catch (IllegalAccessException e) {
+            accessor.set(fieldContainer, instance);
+        } catch (RuntimeException e) {
             e.printStackTrace();
         }
     }
 
     public Field getField() {return field;}
 
+    public ClassMetadata.FieldMetadata getFieldMetadata() {return fieldMetadata;}
+
+    public FieldAccessor getAccessor() {return accessor;}
+
+    public Object getFieldContainer() {return fieldContainer;}
+
     @Override
     public String toString() {
         return "NamePointerBean{" +
                 "name='" + name + '\'' +
                 ", type=" + type +
-                ", instance=" + instance +
+                ", instance=" + getInstance() +
                 ", field=" + field +
                 '}';
     }
@@ -17,11 +17,13 @@
  */
 package com.darkstar.beanCartography;
 
-import com.darkstar.beanCartography.utils.NameUtils;
-import java.lang.reflect.Field;
+import com.darkstar.beanCartography.utils.ClassMetadata;
+
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This class encapsulates the data present on a Named Class annotation.  It captures all of the names
@@ -35,6 +37,7 @@ public class NamedClassBean {
     private Class<?> clazz = null;
     private List<NamePointerBean> fields = null;
     private List<Object> instances = null;
+    private Map<String, NamePointerBean> fieldIndex = null;
 
     /**
      * Constructor
@@ -51,20 +54,29 @@ public class NamedClassBean {
      * @param obj object to use
      */
     public NamedClassBean(Object obj) throws IllegalAccessException {
+        this(obj, null);
+    }
+
+    /**
+     * Constructor that only reads the named fields having one of the given names.  The others are left out as if
+     * they were never named.
+     *
+     * @param obj object to use
+     * @param fieldNames business names of the fields to read or <code>null</code> for all of them
+     */
+    public NamedClassBean(Object obj, Set<String> fieldNames) throws IllegalAccessException {
         this();
         instances.add(obj);
         clazz = obj.getClass();
-        if (!NameUtils.hasBusinessName(clazz))
+        ClassMetadata metadata = ClassMetadata.of(clazz);
+        if (!metadata.hasBusinessName())
             throw new IllegalArgumentException();
-        this.name = NameUtils.getBusinessName(obj.getClass());
-
-        Map<String, List<Field>> classFieldMap = NameUtils.getFields(obj, true);
+        this.name = metadata.getBusinessName();
 
         // look for business field annotation...
-        for (List<Field> classFields : classFieldMap.values())
-            for (Field field : classFields)
-                if (NameUtils.hasBusinessName(field))
-                    fields.add(new NamePointerBean(obj, field));
+        for (ClassMetadata.FieldMetadata field : metadata.getNamedFields())
+            if (fieldNames == null || fieldNames.contains(field.getBusinessName()))
+                fields.add(new NamePointerBean(obj, field));
     }
 
     @Override
@@ -107,6 +119,21 @@ public class NamedClassBean {
         return fields;
     }
 
+    /**
+     * The fields are indexed by name the first time this is called so the field list should not change afterwards.
+     *
+     * @param name business name of a field
+     * @return the first field having the name or <code>null</code> if there is none
+     */
+    public NamePointerBean getField(String name) {
+        if (fieldIndex == null) {
+            fieldIndex = new HashMap<>();
+            for (NamePointerBean field : fields)
+                fieldIndex.putIfAbsent(field.getName(), field);
+        }
+        return fieldIndex.get(name);
+    }
+
     @Override
     public String toString() {
         return "NamedClassBean{" +
@@ -0,0 +1,203 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Growable lists backed by primitive arrays so copied numbers are stored without an object per element.  Nulls are
+ * refused.
+ *
+ * @author michael snavely
+ */
+class PrimitiveLists {
+
+    private PrimitiveLists() {
+        super();
+    }
+
+    /**
+     * @return capacity of at least the minimum, growing by half like ArrayList
+     */
+    private static int grow(int capacity, int minimum) {
+        return Math.max(minimum, capacity + (capacity >> 1) + 1);
+    }
+
+    /**
+     * A list of ints.
+     */
+    static class IntList extends AbstractList<Integer> implements RandomAccess {
+        private int[] values;
+        private int size = 0;
+
+        IntList(int capacity) {
+            this.values = new int[Math.max(capacity, 0)];
+        }
+
+        @Override
+        public Integer get(int index) {
+            Preconditions.checkElementIndex(index, size);
+            return values[index];
+        }
+
+        @Override
+        public Integer set(int index, Integer value) {
+            Preconditions.checkElementIndex(index, size);
+            int old = values[index];
+            values[index] = value;
+            return old;
+        }
+
+        @Override
+        public void add(int index, Integer value) {
+            Preconditions.checkPositionIndex(index, size);
+            int primitive = value;
+            if (size == values.length)
+                values = Arrays.copyOf(values, grow(values.length, size + 1));
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = primitive;
+            size++;
+            modCount++;
+        }
+
+        @Override
+        public Integer remove(int index) {
+            Preconditions.checkElementIndex(index, size);
+            int old = values[index];
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            modCount++;
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * A list of longs.
+     */
+    static class LongList extends AbstractList<Long> implements RandomAccess {
+        private long[] values;
+        private int size = 0;
+
+        LongList(int capacity) {
+            this.values = new long[Math.max(capacity, 0)];
+        }
+
+        @Override
+        public Long get(int index) {
+            Preconditions.checkElementIndex(index, size);
+            return values[index];
+        }
+
+        @Override
+        public Long set(int index, Long value) {
+            Preconditions.checkElementIndex(index, size);
+            long old = values[index];
+            values[index] = value;
+            return old;
+        }
+
+        @Override
+        public void add(int index, Long value) {
+            Preconditions.checkPositionIndex(index, size);
+            long primitive = value;
+            if (size == values.length)
+                values = Arrays.copyOf(values, grow(values.length, size + 1));
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = primitive;
+            size++;
+            modCount++;
+        }
+
+        @Override
+        public Long remove(int index) {
+            Preconditions.checkElementIndex(index, size);
+            long old = values[index];
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            modCount++;
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * A list of doubles.
+     */
+    static class DoubleList extends AbstractList<Double> implements RandomAccess {
+        private double[] values;
+        private int size = 0;
+
+        DoubleList(int capacity) {
+            this.values = new double[Math.max(capacity, 0)];
+        }
+
+        @Override
+        public Double get(int index) {
+            Preconditions.checkElementIndex(index, size);
+            return values[index];
+        }
+
+        @Override
+        public Double set(int index, Double value) {
+            Preconditions.checkElementIndex(index, size);
+            double old = values[index];
+            values[index] = value;
+            return old;
+        }
+
+        @Override
+        public void add(int index, Double value) {
+            Preconditions.checkPositionIndex(index, size);
+            double primitive = value;
+            if (size == values.length)
+                values = Arrays.copyOf(values, grow(values.length, size + 1));
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = primitive;
+            size++;
+            modCount++;
+        }
+
+        @Override
+        public Double remove(int index) {
+            Preconditions.checkElementIndex(index, size);
+            double old = values[index];
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            modCount++;
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import com.darkstar.beanCartography.utils.ClassMetadata;
+import com.darkstar.beanCartography.utils.FieldAccessor;
+import com.darkstar.beanCartography.utils.NameUtils;
+import com.google.common.base.Preconditions;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * This class describes where the named objects of a target class sit using nothing but the declared types of its
+ * named fields.  Each slot of the layout is a named field holding a business class, listed in the same order the
+ * Finder would discover the objects.  A target's graph shape can then be taken without walking the target: the
+ * objects of the slots are only looked up (and created if the field is null) when something is copied into them.
+ * <p>
+ * A class only has a layout when its declared types tell the whole story: business class fields must be of concrete
+ * classes with no argument constructors, no business class may contain itself, and no unnamed field may lead to a
+ * business name.  Lists, maps, and arrays are left to the regular field copies.  A target whose business class field
+ * already holds a subclass of its declared type has no layout either since the subclass may have names of its own.
+ *
+ * @author michael snavely
+ */
+class TargetLayout {
+
+    // every graph taken from a layout has the same shape...
+    static final String SIGNATURE = "@";
+
+    private static final ClassValue<TargetLayout> registry = new ClassValue<TargetLayout>() {
+        @Override
+        protected TargetLayout computeValue(Class<?> type) {
+            return new TargetLayout(type);
+        }
+    };
+
+    /**
+     * One named object of the layout: the root or the value of a business class field of another slot.
+     */
+    private static class Slot {
+        private final int parent;
+        private final FieldAccessor accessor;
+        private final Constructor<?> constructor;
+
+        private Slot(int parent, FieldAccessor accessor, Constructor<?> constructor) {
+            this.parent = parent;
+            this.accessor = accessor;
+            this.constructor = constructor;
+        }
+
+        /**
+         * @return <code>true</code> if the field of the slot could hold something other than its declared type
+         */
+        private boolean isOpen() {
+            return accessor != null && !Modifier.isFinal(constructor.getDeclaringClass().getModifiers());
+        }
+    }
+
+    private final Slot[] slots;   // null if the class has no layout
+    private final int[] openSlots; // slots whose fields could hold a subclass
+
+    /**
+     * Constructor
+     *
+     * @param clazz target class to lay out
+     */
+    private TargetLayout(Class<?> clazz) {
+        super();
+        this.slots = layOut(clazz);
+        this.openSlots = slots == null ? null : IntStream.range(0, slots.length).filter(i -> slots[i].isOpen()).toArray();
+    }
+
+    /**
+     * @param clazz target class
+     * @return the layout of the class or <code>null</code> if its declared types cannot describe its graph
+     */
+    static TargetLayout of(Class<?> clazz) {
+        Preconditions.checkNotNull(clazz, "Class cannot be null");
+        TargetLayout layout = registry.get(clazz);
+        return layout.slots == null ? null : layout;
+    }
+
+    /**
+     * Take the shape of a target without walking it.  The objects of the slots are looked up the first time they are
+     * asked for and created and set into their fields if they are missing, so slots nothing is copied into are never
+     * touched.
+     *
+     * @param root target object of the layout's class
+     * @return the shape of the target or <code>null</code> if one of its fields already holds a subclass
+     */
+    GraphShape of(Object root) {
+        Preconditions.checkNotNull(root, "root cannot be null");
+        Nodes nodes = new Nodes(root);
+        for (int index : openSlots) {
+            Object node = nodes.peek(index);
+            if (node != null && node.getClass() != slots[index].constructor.getDeclaringClass())
+                return null;
+        }
+        return GraphShape.ofNodes(SIGNATURE, nodes);
+    }
+
+    /**
+     * @return the shape of a new target having every slot filled, for matching names against
+     * @throws ReflectiveOperationException if the target cannot be created
+     */
+    GraphShape newGraph() throws ReflectiveOperationException {
+        Nodes nodes = new Nodes(slots[0].constructor.newInstance());
+        List<Object> graph = new ArrayList<>(slots.length);
+        for (int i = 0; i < slots.length; i++)
+            graph.add(nodes.get(i));
+        return GraphShape.ofNodes(SIGNATURE, graph);
+    }
+
+    /**
+     * Lay the class out breadth first just like the Finder would walk it.
+     *
+     * @return the slots or <code>null</code> if the class has no layout
+     */
+    private static Slot[] layOut(Class<?> clazz) {
+        Constructor<?> rootConstructor = getConstructor(clazz);
+        if (rootConstructor == null)
+            return null;
+
+        List<Slot> slots = new ArrayList<>();
+        List<Class<?>> classes = new ArrayList<>();
+        slots.add(new Slot(-1, null, rootConstructor));
+        classes.add(clazz);
+        for (int i = 0; i < slots.size(); i++) {
+            for (ClassMetadata.FieldMetadata field : ClassMetadata.of(classes.get(i)).getFields()) {
+                if (!field.hasBusinessName()) {
+                    // the Finder skips whatever cannot lead to a business name, and an unnamed field declared as
+                    // anything that can be extended may hold a named subclass...
+                    if (field.canReachBusinessNames())
+                        return null;
+                    continue;
+                }
+                if (!NamePointerBean.NAME_TYPE.BUSINESS_CLASS.equals(field.getNameType()))
+                    continue;
+
+                Class<?> type = field.getField().getType();
+                Constructor<?> constructor = getConstructor(type);
+                if (constructor == null || type.getClassLoader() == null || containsItself(slots, classes, i, type))
+                    return null;
+                slots.add(new Slot(i, field.getAccessor(), constructor));
+                classes.add(type);
+            }
+        }
+        return slots.toArray(new Slot[slots.size()]);
+    }
+
+    /**
+     * @return <code>true</code> if the type is already on the way from the root to the slot
+     */
+    private static boolean containsItself(List<Slot> slots, List<Class<?>> classes, int slot, Class<?> type) {
+        for (int i = slot; i >= 0; i = slots.get(i).parent)
+            if (classes.get(i).equals(type))
+                return true;
+        return false;
+    }
+
+    /**
+     * @return the no argument constructor of a concrete class or <code>null</code> if there is none
+     */
+    private static Constructor<?> getConstructor(Class<?> clazz) {
+        if (clazz.isInterface() || clazz.isArray() || clazz.isPrimitive() || Modifier.isAbstract(clazz.getModifiers()) || NameUtils.isImmutable(clazz))
+            return null;
+        try {
+            Constructor<?> constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The objects of the slots of one target, looked up (or created) as they are asked for.
+     */
+    private class Nodes extends AbstractList<Object> {
+        private final Object[] nodes = new Object[slots.length];
+
+        private Nodes(Object root) {
+            nodes[0] = root;
+        }
+
+        /**
+         * @return the object already in the slot or <code>null</code> if it would have to be created
+         */
+        private Object peek(int index) {
+            Object node = nodes[index];
+            if (node != null)
+                return node;
+
+            Slot slot = slots[index];
+            Object parent = peek(slot.parent);
+            return parent == null ? null : (nodes[index] = slot.accessor.get(parent));
+        }
+
+        @Override
+        public Object get(int index) {
+            Object node = nodes[index];
+            if (node != null)
+                return node;
+
+            Slot slot = slots[index];
+            Object parent = get(slot.parent);
+            node = slot.accessor.get(parent);
+            if (node == null) {
+                try {
+                    node = slot.constructor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new RuntimeException(e);
+                }
+                slot.accessor.set(parent, node);
+            }
+            return nodes[index] = node;
+        }
+
+        @Override
+        public int size() {
+            return nodes.length;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(nodes);
+        }
+    }
+}
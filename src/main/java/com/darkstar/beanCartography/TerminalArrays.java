@@ -0,0 +1,96 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography;
+
+import java.lang.reflect.Array;
+
+/**
+ * Bulk copies between arrays whose elements go across as they are.  Matching component types (and references the
+ * target can hold) are copied with System.arraycopy and primitives are widened in loops over the primitive arrays
+ * themselves, so nothing is boxed and there is no reflective check per element.
+ *
+ * @author michael snavely
+ */
+class TerminalArrays {
+
+    private TerminalArrays() {
+        super();
+    }
+
+    /**
+     * Copy the first elements of one array into another.  Reference elements are copied as they are so the caller
+     * must know they are terminal.
+     *
+     * @param source array to copy from
+     * @param target array to copy into
+     * @param length number of elements to copy (no more than either array holds)
+     * @return <code>false</code> if nothing was copied because the component types need more than a widening copy
+     */
+    static boolean copy(Object source, Object target, int length) {
+        Class<?> from = source.getClass().getComponentType();
+        Class<?> to = target.getClass().getComponentType();
+        if (from == to || (!from.isPrimitive() && to.isAssignableFrom(from))) {
+            System.arraycopy(source, 0, target, 0, length);
+            return true;
+        }
+        if (!from.isPrimitive() || !to.isPrimitive() || !FormattedCopy.widens(from, to))
+            return false;
+
+        // the common widenings get loops of their own, the rest still read without boxing...
+        if (to == double.class) {
+            double[] values = (double[]) target;
+            if (from == int.class) {
+                int[] s = (int[]) source;
+                for (int i = 0; i < length; i++)
+                    values[i] = s[i];
+            } else if (from == long.class) {
+                long[] s = (long[]) source;
+                for (int i = 0; i < length; i++)
+                    values[i] = s[i];
+            } else if (from == float.class) {
+                float[] s = (float[]) source;
+                for (int i = 0; i < length; i++)
+                    values[i] = s[i];
+            } else
+                for (int i = 0; i < length; i++)
+                    values[i] = Array.getDouble(source, i);
+        } else if (to == long.class) {
+            long[] values = (long[]) target;
+            if (from == int.class) {
+                int[] s = (int[]) source;
+                for (int i = 0; i < length; i++)
+                    values[i] = s[i];
+            } else
+                for (int i = 0; i < length; i++)
+                    values[i] = Array.getLong(source, i);
+        } else if (to == float.class) {
+            float[] values = (float[]) target;
+            for (int i = 0; i < length; i++)
+                values[i] = Array.getFloat(source, i);
+        } else if (to == int.class) {
+            int[] values = (int[]) target;
+            for (int i = 0; i < length; i++)
+                values[i] = Array.getInt(source, i);
+        } else {
+            short[] values = (short[]) target;
+            for (int i = 0; i < length; i++)
+                values[i] = Array.getShort(source, i);
+        }
+        return true;
+    }
+}
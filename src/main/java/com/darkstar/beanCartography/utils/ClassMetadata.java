@@ -0,0 +1,313 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.utils;
+
+import com.darkstar.beanCartography.NamePointerBean.NAME_TYPE;
+import com.darkstar.beanCartography.annotations.NamedClass;
+import com.darkstar.beanCartography.annotations.NamedClassComposite;
+import com.darkstar.beanCartography.annotations.NamedField;
+import com.google.common.base.Preconditions;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds the business name metadata of a class.  The annotations and fields of a class never change so
+ * the metadata is computed once per class and kept in a registry.  The registry is a ClassValue so the metadata goes
+ * away with the class when its class loader is unloaded.
+ *
+ * @author michael snavely
+ */
+public class ClassMetadata {
+
+    private static final ClassValue<ClassMetadata> registry = new ClassValue<ClassMetadata>() {
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            return new ClassMetadata(type);
+        }
+    };
+
+    /**
+     * This class holds the metadata of a single field.
+     *
+     * @author michael snavely
+     */
+    public static class FieldMetadata {
+        private final Field field;
+        private final String name;
+        private final NAME_TYPE nameType;
+        private volatile Boolean reachesBusinessNames = null;
+        private volatile FieldAccessor accessor = null;
+        private volatile Type[] containedTypes = null;
+
+        /**
+         * Constructor
+         *
+         * @param field field to describe
+         */
+        private FieldMetadata(Field field) {
+            super();
+            this.field = field;
+            NamedField annotation = field.getAnnotation(NamedField.class);
+            this.name = annotation == null ? null : annotation.name();
+
+            Class<?> type = field.getType();
+            if (type.isArray())
+                nameType = NAME_TYPE.ARRAY;
+            else if (Collection.class.isAssignableFrom(type))
+                nameType = NAME_TYPE.COLLECTION;
+            else if (Map.class.isAssignableFrom(type))
+                nameType = NAME_TYPE.MAP;
+            else if (NameUtils.isImmutable(type))
+                nameType = NAME_TYPE.TERMINAL;
+            else
+                nameType = NAME_TYPE.BUSINESS_CLASS;
+
+            // named fields are read and written by the mapper so open them up once here...
+            if (annotation != null)
+                field.setAccessible(true);
+        }
+
+        /**
+         * @return the field
+         */
+        public Field getField() {
+            return field;
+        }
+
+        /**
+         * @return <code>true</code> if the field has a name annotation on it
+         */
+        public boolean hasBusinessName() {
+            return name != null;
+        }
+
+        /**
+         * @return the name associated to the field or <code>null</code> if there is none
+         */
+        public String getBusinessName() {
+            return name;
+        }
+
+        /**
+         * @return accessor reading and writing the field, created on first use
+         */
+        public FieldAccessor getAccessor() {
+            FieldAccessor fieldAccessor = accessor;
+            if (fieldAccessor == null)
+                accessor = fieldAccessor = new FieldAccessor(field);
+            return fieldAccessor;
+        }
+
+        /**
+         * The answer is worked out on first use rather than up front since it depends on the metadata of other
+         * classes, possibly this one.
+         *
+         * @return <code>false</code> if no business name can be found from any value the field could hold
+         * @see NameUtils#canReachBusinessNames(java.lang.reflect.Type)
+         */
+        public boolean canReachBusinessNames() {
+            Boolean reach = reachesBusinessNames;
+            if (reach == null)
+                reachesBusinessNames = reach = NameUtils.canReachBusinessNames(field.getGenericType());
+            return reach;
+        }
+
+        /**
+         * @return element type of an array or collection field (Object if unknown or not a container)
+         */
+        public Type getElementType() {
+            return getContainedTypes()[0];
+        }
+
+        /**
+         * @return key type of a map field (Object if unknown or not a map)
+         */
+        public Type getKeyType() {
+            return getContainedTypes()[1];
+        }
+
+        /**
+         * @return value type of a map field (Object if unknown or not a map)
+         */
+        public Type getValueType() {
+            return getContainedTypes()[2];
+        }
+
+        /**
+         * @return element, key, and value types resolved from the generic type of the field, worked out on first use
+         */
+        private Type[] getContainedTypes() {
+            Type[] types = containedTypes;
+            if (types == null) {
+                Type type = field.getGenericType();
+                containedTypes = types = new Type[] {GenericTypes.elementType(type), GenericTypes.keyType(type), GenericTypes.valueType(type)};
+            }
+            return types;
+        }
+
+        /**
+         * @return the name type implied by the declared type of the field
+         */
+        public NAME_TYPE getNameType() {
+            return nameType;
+        }
+
+        /**
+         * The declared type of a field does not always tell the whole story (i.e. an Object field holding a list) so
+         * the name type of a field value is decided by the declared type when it can be and by the value when not.
+         *
+         * @param instance the value of the field
+         * @return the name type of the field holding the value
+         */
+        public NAME_TYPE getNameType(Object instance) {
+            if (instance == null)
+                return NAME_TYPE.TERMINAL.equals(nameType) ? NAME_TYPE.TERMINAL : NAME_TYPE.BUSINESS_CLASS;
+            if (!NAME_TYPE.BUSINESS_CLASS.equals(nameType))
+                return nameType;
+            if (instance.getClass().isArray())
+                return NAME_TYPE.ARRAY;
+            if (instance instanceof Collection<?>)
+                return NAME_TYPE.COLLECTION;
+            if (instance instanceof Map<?, ?>)
+                return NAME_TYPE.MAP;
+            return NAME_TYPE.BUSINESS_CLASS;
+        }
+    }
+
+    private final String name;
+    private final String[] compositeNames;
+    private final Field[] declaredFields;
+    private final List<FieldMetadata> fields;
+    private final List<FieldMetadata> namedFields;
+    private final Map<Field, FieldMetadata> fieldMap;
+
+    /**
+     * Constructor
+     *
+     * @param clazz class to describe
+     */
+    private ClassMetadata(Class<?> clazz) {
+        super();
+        NamedClass namedClass = clazz.getAnnotation(NamedClass.class);
+        NamedClassComposite composite = clazz.getAnnotation(NamedClassComposite.class);
+        this.name = namedClass == null ? null : namedClass.name();
+        this.compositeNames = composite == null ? null : composite.names();
+        this.declaredFields = clazz.getDeclaredFields();
+
+        List<FieldMetadata> fields = new ArrayList<>();
+        List<FieldMetadata> namedFields = new ArrayList<>();
+        Map<Field, FieldMetadata> fieldMap = new HashMap<>();
+
+        // this class' fields first then his ancestors' just like the Finder...
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            for (Field field : c == clazz ? declaredFields : of(c).declaredFields) {
+                FieldMetadata fieldMetadata = c == clazz ? new FieldMetadata(field) : of(c).fieldMap.get(field);
+                fields.add(fieldMetadata);
+                if (fieldMetadata.hasBusinessName())
+                    namedFields.add(fieldMetadata);
+                if (c == clazz)
+                    fieldMap.put(field, fieldMetadata);
+            }
+        }
+        this.fields = Collections.unmodifiableList(fields);
+        this.namedFields = Collections.unmodifiableList(namedFields);
+        this.fieldMap = fieldMap;
+    }
+
+    /**
+     * @param clazz class to look up
+     * @return the metadata of the class
+     */
+    public static ClassMetadata of(Class<?> clazz) {
+        Preconditions.checkNotNull(clazz, "Class cannot be null");
+        return registry.get(clazz);
+    }
+
+    /**
+     * @param field field to look up
+     * @return the metadata of the field
+     */
+    public static FieldMetadata of(Field field) {
+        Preconditions.checkNotNull(field, "Field cannot be null");
+        FieldMetadata fieldMetadata = of(field.getDeclaringClass()).fieldMap.get(field);
+        return fieldMetadata != null ? fieldMetadata : new FieldMetadata(field);
+    }
+
+    /**
+     * @return <code>true</code> if the class has a name annotation on it
+     */
+    public boolean hasBusinessName() {
+        return name != null;
+    }
+
+    /**
+     * @return the name associated to the class or <code>null</code> if there is none
+     */
+    public String getBusinessName() {
+        return name;
+    }
+
+    /**
+     * @return <code>true</code> if the class has a composite annotation
+     */
+    public boolean hasBusinessComposites() {
+        return compositeNames != null;
+    }
+
+    /**
+     * @return array of string names associated to the composite or <code>null</code> if there is none
+     */
+    public String[] getBusinessComposites() {
+        return compositeNames == null ? null : compositeNames.clone();
+    }
+
+    /**
+     * @return <code>true</code> if any fields of the class or its ancestors have names associated with them
+     */
+    public boolean hasFieldBusinessNames() {
+        return !namedFields.isEmpty();
+    }
+
+    /**
+     * @return the fields declared by the class only
+     */
+    public Field[] getDeclaredFields() {
+        return declaredFields.clone();
+    }
+
+    /**
+     * @return all fields of the class and its ancestors, the class' own fields first
+     */
+    public List<FieldMetadata> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return the fields of the class and its ancestors that have names associated with them in the same order
+     */
+    public List<FieldMetadata> getNamedFields() {
+        return namedFields;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.utils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Primitives;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * This class reads and writes a single field through method handles resolved once from the field.  Unlike
+ * Field.get/set the handles skip the access checks on every call.  The handles are held per accessor rather than in
+ * constants so the JIT treats them as ordinary calls.  Fields of the same primitive type are copied through handles of
+ * that type so the values are never boxed.
+ * <p>
+ * Fields the handles cannot be resolved for (i.e. a final field on a runtime that will not hand out a setter) fall
+ * back to plain reflection.
+ * <p>
+ * The handles come from unreflecting the field rather than from a VarHandle.  Unreflecting honors the field's
+ * accessible flag so one lookup reaches private fields of any class and writes final instance fields, where a
+ * VarHandle checks access against the lookup class (a private lookup per declaring class) and is read only for final
+ * fields.
+ *
+ * @author michael snavely
+ */
+public class FieldAccessor {
+
+    private final Field field;
+    private final Class<?> type;
+    private final Class<?> boxedType;
+    private final MethodHandle getter;          // (Object)Object
+    private final MethodHandle setter;          // (Object,Object)void
+    private final MethodHandle primitiveGetter; // (Object)<primitive>
+    private final MethodHandle primitiveSetter; // (Object,<primitive>)void
+
+    /**
+     * Constructor
+     *
+     * @param field field to access
+     */
+    FieldAccessor(Field field) {
+        super();
+        Preconditions.checkNotNull(field, "Field cannot be null");
+        this.field = field;
+        this.type = field.getType();
+        this.boxedType = Primitives.wrap(type);
+        // a field that cannot be opened (i.e. inside a module that does not open its package) is left to reflection...
+        field.trySetAccessible();
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle get = null;
+        MethodHandle set = null;
+        try {
+            get = lookup.unreflectGetter(field);
+        } catch (IllegalAccessException e) {
+            // leave it to reflection...
+        }
+        try {
+            set = lookup.unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            // leave it to reflection...
+        }
+
+        // static fields take no instance so give them one to ignore...
+        if (Modifier.isStatic(field.getModifiers())) {
+            get = get == null ? null : MethodHandles.dropArguments(get, 0, Object.class);
+            set = set == null ? null : MethodHandles.dropArguments(set, 0, Object.class);
+        }
+
+        this.getter = get == null ? null : get.asType(MethodType.methodType(Object.class, Object.class));
+        this.setter = set == null ? null : set.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        this.primitiveGetter = get == null || !type.isPrimitive() ? null : get.asType(MethodType.methodType(type, Object.class));
+        this.primitiveSetter = set == null || !type.isPrimitive() ? null : set.asType(MethodType.methodType(void.class, Object.class, type));
+    }
+
+    /**
+     * @param field field to look up
+     * @return the accessor of the field
+     */
+    public static FieldAccessor of(Field field) {
+        return ClassMetadata.of(field).getAccessor();
+    }
+
+    /**
+     * @return the field
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @param instance object containing the field
+     * @return the value of the field (boxed if primitive)
+     */
+    public Object get(Object instance) {
+        try {
+            if (getter == null)
+                return field.get(instance);
+            return (Object) getter.invokeExact(instance);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * @param instance object containing the field
+     * @param value value to set (unboxed and widened if the field is primitive)
+     */
+    public void set(Object instance, Object value) {
+        try {
+            // anything but the exact box of a primitive needs reflection to be widened (or rejected)...
+            boolean widen = type.isPrimitive() && (value == null || value.getClass() != boxedType);
+            if (setter == null || widen)
+                field.set(instance, value);
+            else
+                setter.invokeExact(instance, value);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * @param instance object containing the field
+     * @return the value of the field widened to an int
+     */
+    public int getInt(Object instance) {
+        try {
+            if (type == int.class && primitiveGetter != null)
+                return (int) primitiveGetter.invokeExact(instance);
+            return field.getInt(instance);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * @param instance object containing the field
+     * @param value value to set (widened to the type of the field)
+     */
+    public void setInt(Object instance, int value) {
+        try {
+            if (type == int.class && primitiveSetter != null)
+                primitiveSetter.invokeExact(instance, value);
+            else
+                field.setInt(instance, value);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * @param instance object containing the field
+     * @return the value of the field widened to a long
+     */
+    public long getLong(Object instance) {
+        try {
+            if (type == long.class && primitiveGetter != null)
+                return (long) primitiveGetter.invokeExact(instance);
+            return field.getLong(instance);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * @param instance object containing the field
+     * @param value value to set (widened to the type of the field)
+     */
+    public void setLong(Object instance, long value) {
+        try {
+            if (type == long.class && primitiveSetter != null)
+                primitiveSetter.invokeExact(instance, value);
+            else
+                field.setLong(instance, value);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * @param instance object containing the field
+     * @return the value of the field widened to a double
+     */
+    public double getDouble(Object instance) {
+        try {
+            if (type == double.class && primitiveGetter != null)
+                return (double) primitiveGetter.invokeExact(instance);
+            return field.getDouble(instance);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * @param instance object containing the field
+     * @param value value to set
+     */
+    public void setDouble(Object instance, double value) {
+        try {
+            if (type == double.class && primitiveSetter != null)
+                primitiveSetter.invokeExact(instance, value);
+            else
+                field.setDouble(instance, value);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * @param instance object containing the field
+     * @return the value of the field
+     */
+    public boolean getBoolean(Object instance) {
+        try {
+            if (type == boolean.class && primitiveGetter != null)
+                return (boolean) primitiveGetter.invokeExact(instance);
+            return field.getBoolean(instance);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * @param instance object containing the field
+     * @param value value to set
+     */
+    public void setBoolean(Object instance, boolean value) {
+        try {
+            if (type == boolean.class && primitiveSetter != null)
+                primitiveSetter.invokeExact(instance, value);
+            else
+                field.setBoolean(instance, value);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * Copy the value of a field of a source object into this field of a target object.  When both fields have the
+     * same primitive type the value is copied without being boxed.
+     *
+     * @param source accessor of the source field
+     * @param sourceInstance object containing the source field
+     * @param targetInstance object containing this field
+     */
+    public void copy(FieldAccessor source, Object sourceInstance, Object targetInstance) {
+        Preconditions.checkNotNull(source, "source cannot be null");
+        if (!type.isPrimitive() || type != source.type || primitiveSetter == null || source.primitiveGetter == null) {
+            set(targetInstance, source.get(sourceInstance));
+            return;
+        }
+
+        try {
+            if (type == int.class)
+                primitiveSetter.invokeExact(targetInstance, (int) source.primitiveGetter.invokeExact(sourceInstance));
+            else if (type == long.class)
+                primitiveSetter.invokeExact(targetInstance, (long) source.primitiveGetter.invokeExact(sourceInstance));
+            else if (type == double.class)
+                primitiveSetter.invokeExact(targetInstance, (double) source.primitiveGetter.invokeExact(sourceInstance));
+            else if (type == float.class)
+                primitiveSetter.invokeExact(targetInstance, (float) source.primitiveGetter.invokeExact(sourceInstance));
+            else if (type == boolean.class)
+                primitiveSetter.invokeExact(targetInstance, (boolean) source.primitiveGetter.invokeExact(sourceInstance));
+            else if (type == char.class)
+                primitiveSetter.invokeExact(targetInstance, (char) source.primitiveGetter.invokeExact(sourceInstance));
+            else if (type == short.class)
+                primitiveSetter.invokeExact(targetInstance, (short) source.primitiveGetter.invokeExact(sourceInstance));
+            else
+                primitiveSetter.invokeExact(targetInstance, (byte) source.primitiveGetter.invokeExact(sourceInstance));
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException)
+            return (RuntimeException) t;
+        if (t instanceof Error)
+            throw (Error) t;
+        return new RuntimeException(t);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.utils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.reflect.TypeToken;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * This class works out the element types of arrays, collections, and maps from their generic declarations.  The type
+ * arguments are resolved against the container's own type hierarchy, so a field declared as a class extending
+ * ArrayList&lt;Address&gt; holds Addresses just like a List&lt;Address&gt; field does.  Nested parameterized types,
+ * wildcards, type variables, and generic arrays are all followed.  No classes are loaded by name.
+ *
+ * @author michael snavely
+ */
+public class GenericTypes {
+
+    private static final TypeVariable<?> COLLECTION_ELEMENT = Collection.class.getTypeParameters()[0];
+    private static final TypeVariable<?> MAP_KEY = Map.class.getTypeParameters()[0];
+    private static final TypeVariable<?> MAP_VALUE = Map.class.getTypeParameters()[1];
+
+    private GenericTypes() {
+        super();
+    }
+
+    /**
+     * @param type generic type
+     * @return the class values of the type are instances of (the lower bound of a wildcard if it has one, otherwise
+     * its upper bound and the first bound of a type variable)
+     */
+    public static Class<?> rawClass(Type type) {
+        Preconditions.checkNotNull(type, "type cannot be null");
+        if (type instanceof Class<?>)
+            return (Class<?>) type;
+        if (type instanceof ParameterizedType)
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        if (type instanceof GenericArrayType)
+            return Array.newInstance(rawClass(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        if (type instanceof WildcardType || type instanceof TypeVariable<?>)
+            return rawClass(bound(type));
+        return Object.class;
+    }
+
+    /**
+     * @param type array or collection type
+     * @return the component type of the array or the element type of the collection (Object if it is not either)
+     */
+    public static Type elementType(Type type) {
+        type = bound(type);
+        if (type instanceof GenericArrayType)
+            return ((GenericArrayType) type).getGenericComponentType();
+        Class<?> raw = rawClass(type);
+        if (raw.isArray())
+            return raw.getComponentType();
+        return Collection.class.isAssignableFrom(raw) ? resolve(type, COLLECTION_ELEMENT) : Object.class;
+    }
+
+    /**
+     * @param type map type
+     * @return the key type of the map (Object if it is not a map)
+     */
+    public static Type keyType(Type type) {
+        type = bound(type);
+        return Map.class.isAssignableFrom(rawClass(type)) ? resolve(type, MAP_KEY) : Object.class;
+    }
+
+    /**
+     * @param type map type
+     * @return the value type of the map (Object if it is not a map)
+     */
+    public static Type valueType(Type type) {
+        type = bound(type);
+        return Map.class.isAssignableFrom(rawClass(type)) ? resolve(type, MAP_VALUE) : Object.class;
+    }
+
+    /**
+     * @return the type argument of the container type for the variable, bounded if it is not a concrete type
+     */
+    private static Type resolve(Type type, TypeVariable<?> variable) {
+        return bound(TypeToken.of(type).resolveType(variable).getType());
+    }
+
+    /**
+     * @return the type itself or the bound of a wildcard or type variable
+     */
+    private static Type bound(Type type) {
+        while (true) {
+            if (type instanceof WildcardType) {
+                WildcardType wildcard = (WildcardType) type;
+                type = wildcard.getLowerBounds().length > 0 ? wildcard.getLowerBounds()[0] : wildcard.getUpperBounds()[0];
+            } else if (type instanceof TypeVariable<?>)
+                type = ((TypeVariable<?>) type).getBounds()[0];
+            else
+                return type;
+        }
+    }
+}
@@ -17,24 +17,28 @@
  */
 package com.darkstar.beanCartography.utils;
 
-import com.darkstar.beanCartography.annotations.NamedClass;
-import com.darkstar.beanCartography.annotations.NamedClassComposite;
-import com.darkstar.beanCartography.annotations.NamedField;
 import com.google.common.base.Preconditions;
-import org.apache.commons.lang.mutable.MutableBoolean;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -75,6 +79,22 @@ public class NameUtils {
         immutableClasses.add(Timestamp.class);
     }
 
+    // declared class to whether or not a business name can be reached from a value of that type...
+    private static final ClassValue<Boolean> businessNameReach = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return searchBusinessNames(type, null, false);
+        }
+    };
+
+    // runtime class to whether or not a business name can be reached from an instance of exactly that class...
+    private static final ClassValue<Boolean> instanceNameReach = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return searchBusinessNames(type, null, true);
+        }
+    };
+
     /**
      * For the purposes of this project, 'immutable' types will be those types that we do not want to
      * delve down into.  We want to treat them as if they were leaf nodes.
@@ -86,13 +106,186 @@ public class NameUtils {
         return clazz == null || clazz.isEnum() || immutableClasses.contains(clazz);
     }
 
+    /**
+     * Static analysis of the declared types to decide if a business name could ever be found on or inside a value
+     * of the given type.  Declared field types, generic type arguments, and array component types are followed.
+     * <p>
+     * A declared type says nothing about the subclasses its values may really be so only types nobody else can
+     * extend are followed into: final classes and JDK classes without a public or protected constructor.  Any other
+     * class, any interface, and Object can hold a named subclass so they can always reach a business name.  Like the
+     * immutable types, the JDK is trusted not to carry named objects itself.  Its classes are only followed through
+     * slots that can hold any object (i.e. Object fields, type variables, collections and maps) and its collections
+     * and maps are followed through their type arguments.
+     *
+     * @param type type to check
+     * @return <code>false</code> if a business name can never be found from a value of this type
+     */
+    public static boolean canReachBusinessNames(Type type) {
+        Preconditions.checkNotNull(type, "Type cannot be null");
+        if (type instanceof Class<?>)
+            return businessNameReach.get((Class<?>) type);
+        return searchBusinessNames(type, null, false);
+    }
+
+    /**
+     * Like {@link #canReachBusinessNames(Type)} but only the given business names count: class names, composite
+     * names, and field names.  Slots that can hold any object can still reach any name.  The answer is not cached.
+     *
+     * @param type type to check
+     * @param names business names to look for
+     * @return <code>false</code> if none of the names can ever be found from a value of this type
+     */
+    public static boolean canReachBusinessNames(Type type, Set<String> names) {
+        Preconditions.checkNotNull(names, "names cannot be null");
+        return canReachBusinessNames(type) && searchBusinessNames(type, names, false);
+    }
+
+    /**
+     * Like {@link #canReachBusinessNames(Type)} but for the runtime class of an object: the class itself is known
+     * exactly so it is followed into even when it could be extended.  Its fields are still only declared types.
+     *
+     * @param clazz class of the object to check
+     * @return <code>false</code> if a business name can never be found from an instance of exactly this class
+     */
+    public static boolean canInstanceReachBusinessNames(Class<?> clazz) {
+        Preconditions.checkNotNull(clazz, "Class cannot be null");
+        return instanceNameReach.get(clazz);
+    }
+
+    /**
+     * Like {@link #canInstanceReachBusinessNames(Class)} but only the given business names count.  The answer is not
+     * cached.
+     *
+     * @param clazz class of the object to check
+     * @param names business names to look for
+     * @return <code>false</code> if none of the names can ever be found from an instance of exactly this class
+     */
+    public static boolean canInstanceReachBusinessNames(Class<?> clazz, Set<String> names) {
+        Preconditions.checkNotNull(names, "names cannot be null");
+        return canInstanceReachBusinessNames(clazz) && searchBusinessNames(clazz, names, true);
+    }
+
+    /**
+     * Search the type graph starting from a type for anything that could carry a business name.
+     *
+     * @param root type to start from
+     * @param names business names to look for or <code>null</code> for any
+     * @param exact <code>true</code> if the root is the runtime class of an object rather than a declared type
+     * @return <code>true</code> if a business name may be reached
+     */
+    private static boolean searchBusinessNames(Type root, Set<String> names, boolean exact) {
+        Deque<Type> types = new ArrayDeque<>();
+        Set<Class<?>> seen = new HashSet<>();
+        types.push(root);
+
+        while (!types.isEmpty()) {
+            Type type = types.pop();
+
+            if (type instanceof ParameterizedType) {
+                Class<?> raw = (Class<?>) ((ParameterizedType) type).getRawType();
+                if (!isContainer(raw) || raw.getClassLoader() != null)
+                    types.push(raw);
+                types.addAll(Arrays.asList(((ParameterizedType) type).getActualTypeArguments()));
+            } else if (type instanceof WildcardType)
+                types.addAll(Arrays.asList(((WildcardType) type).getUpperBounds()));
+            else if (type instanceof TypeVariable<?>)
+                types.addAll(Arrays.asList(((TypeVariable<?>) type).getBounds()));
+            else if (type instanceof GenericArrayType)
+                types.push(((GenericArrayType) type).getGenericComponentType());
+            else if (type instanceof Class<?>) {
+                Class<?> clazz = (Class<?>) type;
+
+                // the exact root is not marked seen since the same class may still turn up as a declared type...
+                boolean instance = exact && clazz == root;
+                if ((!instance && !seen.add(clazz)) || clazz.isPrimitive() || isImmutable(clazz))
+                    continue;
+                if (clazz.isArray()) {
+                    types.push(clazz.getComponentType());
+                    continue;
+                }
+
+                ClassMetadata metadata = ClassMetadata.of(clazz);
+                if (names == null ? metadata.hasBusinessName() || metadata.hasBusinessComposites() || metadata.hasFieldBusinessNames() : carriesAny(metadata, names))
+                    return true;
+
+                boolean jdk = clazz.getClassLoader() == null;
+                if (isContainer(clazz) && jdk)
+                    return true;
+                if (!instance && isExtensible(clazz, jdk))
+                    return true;
+
+                for (ClassMetadata.FieldMetadata field : metadata.getFields()) {
+                    Type fieldType = field.getField().getGenericType();
+                    if (!jdk)
+                        types.push(fieldType);
+                    else if (!Modifier.isStatic(field.getField().getModifiers()) && isOpenSlot(fieldType))
+                        return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return <code>true</code> if the class or one of its named fields carries one of the names
+     */
+    private static boolean carriesAny(ClassMetadata metadata, Set<String> names) {
+        if (metadata.hasBusinessName() && names.contains(metadata.getBusinessName()))
+            return true;
+        if (metadata.hasBusinessComposites())
+            for (String composite : metadata.getBusinessComposites())
+                if (names.contains(composite))
+                    return true;
+        for (ClassMetadata.FieldMetadata field : metadata.getNamedFields())
+            if (names.contains(field.getBusinessName()))
+                return true;
+        return false;
+    }
+
+    /**
+     * @param type declared type of a jdk field
+     * @return <code>true</code> if the field can hold any object at all
+     */
+    private static boolean isOpenSlot(Type type) {
+        if (type instanceof TypeVariable<?> || type instanceof ParameterizedType)
+            return true;
+        if (type instanceof GenericArrayType)
+            return isOpenSlot(((GenericArrayType) type).getGenericComponentType());
+        Class<?> clazz = (Class<?>) type;
+        while (clazz.isArray())
+            clazz = clazz.getComponentType();
+        return Object.class.equals(clazz) || isContainer(clazz);
+    }
+
+    /**
+     * @return <code>true</code> if a value declared as this class could really be an instance of some other class
+     */
+    private static boolean isExtensible(Class<?> clazz, boolean jdk) {
+        if (clazz.isInterface() || Object.class.equals(clazz))
+            return true;
+        if (Modifier.isFinal(clazz.getModifiers()))
+            return false;
+        if (!jdk)
+            return true;
+
+        // only the jdk itself can extend a jdk class nobody else can call a constructor of...
+        for (Constructor<?> constructor : clazz.getDeclaredConstructors())
+            if (Modifier.isPublic(constructor.getModifiers()) || Modifier.isProtected(constructor.getModifiers()))
+                return true;
+        return false;
+    }
+
+    private static boolean isContainer(Class<?> clazz) {
+        return Iterable.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz);
+    }
+
     /**
      * @param clazz class to check
      * @return <code>true</code> if the class has a name annotation on it
      */
     public static boolean hasBusinessName(Class<?> clazz) {
         Preconditions.checkNotNull(clazz, "Class cannot be null");
-        return clazz.isAnnotationPresent(NamedClass.class);
+        return ClassMetadata.of(clazz).hasBusinessName();
     }
 
     /**
@@ -101,7 +294,7 @@ public class NameUtils {
      */
     public static boolean hasBusinessName(Field field) {
         Preconditions.checkNotNull(field, "Field cannot be null");
-        return field.isAnnotationPresent(NamedField.class);
+        return ClassMetadata.of(field).hasBusinessName();
     }
 
     /**
@@ -110,9 +303,7 @@ public class NameUtils {
      */
     public static String getBusinessName(Class<?> clazz) {
         Preconditions.checkNotNull(clazz, "Class cannot be null");
-        if (hasBusinessName(clazz))
-            return clazz.getAnnotation(NamedClass.class).name();
-        return null;
+        return ClassMetadata.of(clazz).getBusinessName();
     }
 
     /**
@@ -121,9 +312,7 @@ public class NameUtils {
      */
     public static String getBusinessName(Field field) {
         Preconditions.checkNotNull(field, "Field cannot be null");
-        if (hasBusinessName(field))
-            return field.getAnnotation(NamedField.class).name();
-        return null;
+        return ClassMetadata.of(field).getBusinessName();
     }
 
     /**
@@ -132,7 +321,7 @@ public class NameUtils {
      */
     public static boolean hasBusinessComposites(Class<?> clazz) {
         Preconditions.checkNotNull(clazz, "Class cannot be null");
-        return clazz.isAnnotationPresent(NamedClassComposite.class);
+        return ClassMetadata.of(clazz).hasBusinessComposites();
     }
 
     /**
@@ -143,7 +332,7 @@ public class NameUtils {
         Preconditions.checkNotNull(clazz, "Class cannot be null");
         if (!hasBusinessComposites(clazz))
             throw new IllegalArgumentException("not a business composite");
-        return clazz.getAnnotation(NamedClassComposite.class).names();
+        return ClassMetadata.of(clazz).getBusinessComposites();
     }
 
     /**
@@ -152,16 +341,7 @@ public class NameUtils {
      */
     public static boolean hasFieldBusinessNames(Object o) {
         Preconditions.checkNotNull(o, "Object cannot be null");
-
-        // look for business field annotation...
-        Map<String, List<Field>> classFieldMap = getFields(o, true);
-        final MutableBoolean hasBusinessName = new MutableBoolean(false);
-        classFieldMap.values().stream()
-            .forEach(fieldList -> {
-                Optional<Field> fieldOpt = fieldList.stream().filter(NameUtils::hasBusinessName).findFirst();
-                fieldOpt.ifPresent(field -> hasBusinessName.setValue(field != null));
-            });
-        return hasBusinessName.booleanValue();
+        return ClassMetadata.of(o.getClass()).hasFieldBusinessNames();
     }
 
     /**
@@ -181,8 +361,7 @@ public class NameUtils {
         List<Field> resultList;
 
         do {
-            resultList = new ArrayList<>();
-            getClassFields(clazz, resultList, false);
+            resultList = new ArrayList<>(Arrays.asList(ClassMetadata.of(clazz).getDeclaredFields()));
             resultMap.put(clazz.getCanonicalName(), resultList);
             clazz = clazz.getSuperclass();
         } while (clazz != null && includeSuperClasses);
@@ -215,13 +394,11 @@ public class NameUtils {
      */
     public static Field[] getClassFields(Class<?> clazz, boolean includeSuperClasses) {
         Preconditions.checkNotNull(clazz, "Class cannot be null!");
-        List<Field> allFields = new ArrayList<>();
-        do {
-            allFields.addAll(Arrays.asList(clazz.getDeclaredFields()));
-        } while (includeSuperClasses && (clazz = clazz.getSuperclass()) != null);
-
-        Field[] fields = new Field[allFields.size()];
-        return allFields.toArray(fields);
+        if (!includeSuperClasses)
+            return ClassMetadata.of(clazz).getDeclaredFields();
+        return ClassMetadata.of(clazz).getFields().stream()
+                .map(ClassMetadata.FieldMetadata::getField)
+                .toArray(Field[]::new);
     }
 }
 
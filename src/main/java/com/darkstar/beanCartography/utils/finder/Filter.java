@@ -17,6 +17,8 @@
  */
 package com.darkstar.beanCartography.utils.finder;
 
+import java.lang.reflect.Field;
+
 /**
  * This is the Filter interface used to determine if an object should be processed.
  *
@@ -31,5 +33,28 @@ public interface Filter {
      * @return <code>true</code> if the object should be accepted for further processing.
      */
     public boolean accept(Object o);
+
+    /**
+     * Given the class of an object about to be searched, this method will return <code>false</code> if neither the
+     * object nor anything contained by it could ever be accepted.  The Finder skips such objects entirely.
+     *
+     * @param type class of the object to search
+     * @return <code>false</code> if nothing accepted by this filter can be found from an object of this class
+     */
+    public default boolean canReach(Class<?> type) {
+        return true;
+    }
+
+    /**
+     * Given the field holding an object about to be searched, this method will return <code>false</code> if nothing
+     * that could ever be held by the field (including the contents of arrays, collections, and maps) would be
+     * accepted.  The Finder skips such field values entirely.
+     *
+     * @param field field holding the object to search
+     * @return <code>false</code> if nothing accepted by this filter can be found from a value of this field
+     */
+    public default boolean canReach(Field field) {
+        return true;
+    }
 }
 
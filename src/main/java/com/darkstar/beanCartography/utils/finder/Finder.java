@@ -19,22 +19,19 @@ package com.darkstar.beanCartography.utils.finder;
 
 import com.darkstar.beanCartography.utils.NameUtils;
 import com.google.common.base.Preconditions;
-import org.apache.commons.lang.mutable.MutableObject;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.IntStream;
 
 /**
  * This class will scan an object and its contents passing each through a filter.  If the Filter determines that
@@ -44,50 +41,58 @@ import java.util.stream.IntStream;
  */
 public class Finder {
 
+    // class to the fields of the class and its ancestors opened up for reading...
+    private static final ClassValue<Field[]> readableFields = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Field field : NameUtils.getClassFields(type, true)) {
+                try {
+                    field.setAccessible(true);
+                    fields.add(field);
+                } catch (RuntimeException e) {
+                    // the field is locked away from us (i.e. jdk internals on a modular runtime) so skip it...
+                }
+            }
+            return fields.toArray(new Field[fields.size()]);
+        }
+    };
+
+    // the readable fields less those declared primitive or immutable, which can only ever hold leaves...
+    private static final ClassValue<Field[]> searchableFields = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Field field : readableFields.get(type))
+                if (!field.getType().isPrimitive() && !NameUtils.isImmutable(field.getType()))
+                    fields.add(field);
+            return fields.toArray(new Field[fields.size()]);
+        }
+    };
+
     /**
-     * This BeanContext class will retrieve and find the field values contained by a source object.
+     * This BeanContext class will retrieve and find the field values contained by a source object.  Field values
+     * are read one at a time as they are asked for so objects that are never iterated never have their fields read.
      *
      * @author michael snavely
      */
     private static class BeanContext {
         private Object source = null;
-        private List<Object> fieldValueList = null;
-        private Iterator<Object> fieldIt = null;
+        private Field[] fields = null;
+        private int fieldIndex = 0;
+        private boolean leavesSkipped = false;
 
         /**
          * Constructor
          *
          * @param source the object that will be inspected
+         * @param leavesSkipped <code>true</code> if fields declared primitive or immutable should not be visited
          */
-        public BeanContext(Object source) {
+        public BeanContext(Object source, boolean leavesSkipped) {
             super();
             Preconditions.checkNotNull(source, "Parameter source must not be null!");
             this.source = source;
-            init();
-        }
-
-        /**
-         * This method will initialize the field values list from the contents of the source object.
-         */
-        private void init() {
-            fieldValueList = new ArrayList<>();
-            MutableObject clazz = new MutableObject(source.getClass());
-            List<Field> fields;
-
-            // retrieve and add the field values of the source object as well as his ancestors...
-            do {
-                fields = Arrays.asList(((Class<?>) clazz.getValue()).getDeclaredFields());
-                fields.stream()
-                        .forEach(field -> {
-                            field.setAccessible(true);
-                            try {
-                                fieldValueList.add(field.get(((Class<?>) clazz.getValue()).cast(source)));
-                            } catch (IllegalAccessException e) {
-                                throw new RuntimeException(e);
-                            }
-                        });
-                clazz.setValue(((Class<?>) clazz.getValue()).getSuperclass());
-            } while (clazz.getValue() != null);
+            this.leavesSkipped = leavesSkipped;
         }
 
         /**
@@ -101,49 +106,59 @@ public class Finder {
          * Use this method to reset the field iterator to the beginning.
          */
         public void resetFieldIt() {
-            fieldIt = null;
+            fieldIndex = 0;
         }
 
         /**
          * @return <code>true</code> if the iterator has another field value
          */
-        public boolean hasNextFieldValue() { return getFieldValueIt().hasNext(); }
+        public boolean hasNextFieldValue() { return fieldIndex < getFields().length; }
+
+        /**
+         * Move on to the next field without reading it.
+         *
+         * @return the next field or <code>null</code> if there are no more
+         */
+        public Field nextField() {
+            if (!hasNextFieldValue())
+                return null;
+            return fields[fieldIndex++];
+        }
 
         /**
          * @return the value of the next field
          */
         public Object nextFieldValue() {
-            return hasNextFieldValue() ? getFieldValueIt().next() : null;
+            if (nextField() == null)
+                return null;
+            return currentFieldValue();
         }
 
         /**
-         * @return the field values iterator preserving its current position
+         * @return the value of the field moved to last
          */
-        private Iterator<Object> getFieldValueIt() {
-            if (fieldIt == null)
-                fieldIt = fieldValueList.iterator();
-            return fieldIt;
+        public Object currentFieldValue() {
+            try {
+                return currentField().get(source);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
         }
 
-        /*
-         * equals and hashcode are based off of the source object...
+        /**
+         * @return the field whose value was returned last
          */
-
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == null)
-                return false;
-            if (this == obj)
-                return true;
-            if (!(obj instanceof BeanContext))
-                return false;
-            BeanContext other = (BeanContext) obj;
-            return source.equals(other.source);
+        public Field currentField() {
+            return fieldIndex == 0 ? null : fields[fieldIndex - 1];
         }
 
-        @Override
-        public int hashCode() {
-            return (source == null) ? super.hashCode() : source.hashCode();
+        /**
+         * @return the fields of the source object's class and his ancestors to visit
+         */
+        private Field[] getFields() {
+            if (fields == null)
+                fields = (leavesSkipped ? searchableFields : readableFields).get(source.getClass());
+            return fields;
         }
     }
 
@@ -152,6 +167,7 @@ public class Finder {
     private boolean processArrays      = true;
     private boolean processMaps        = true;
     private boolean processCollections = true;
+    private boolean pruneUnreachable   = true;
 
     /**
      * Constructor
@@ -175,6 +191,20 @@ public class Finder {
         this.processCollections = processCollections;
     }
 
+    /**
+     * Constructor
+     *
+     * @param processArrays <code>true</code> if arrays should be included in the mapping process
+     * @param processMaps <code>true</code> if maps should be included in the mapping process
+     * @param processCollections <code>true</code> if collections should be included in the mapping process
+     * @param pruneUnreachable <code>true</code> if objects the filters say cannot lead to a match should be skipped
+     *                         (fields declared primitive or immutable are then never read either)
+     */
+    public Finder(boolean processArrays, boolean processMaps, boolean processCollections, boolean pruneUnreachable) {
+        this(processArrays, processMaps, processCollections);
+        this.pruneUnreachable = pruneUnreachable;
+    }
+
     /**
      * Add a filter and its corresponding interceptor.
      *
@@ -196,29 +226,28 @@ public class Finder {
     public void find(Object target) {
         if (target == null)
             return;
-        Deque<BeanContext> stack = new LinkedList<>();
-        Set<BeanContext> visited = new LinkedHashSet<>();
-        stack.push(new BeanContext(target));
+        Deque<BeanContext> stack = new ArrayDeque<>();
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        push(stack, seen, target);
+
+        // a container passed in is searched like one found in a field (its own fields may not even be readable)...
+        pushElements(stack, seen, target);
 
         while(!stack.isEmpty())
-            visit(stack, visited);
+            visit(stack, seen);
     }
 
     /**
      * Process the bean context stack.
      *
      * @param stack stack of objects left to search
-     * @param visited set of objects already searched
+     * @param seen set of objects already searched or waiting to be searched
      */
-    protected void visit(Deque<BeanContext> stack, Set<BeanContext> visited) {
-        BeanContext target = stack.pop();
+    protected void visit(Deque<BeanContext> stack, Set<Object> seen) {
+        BeanContext target = stack.poll();
         if (target == null)
             return;
 
-        if (visited.contains(target))
-            return;
-        visited.add(target);
-
         // process this object and check the filters.  if passed filter then run interceptors...
         filtersInterceptors.entrySet().stream()
                 .filter(entry -> entry.getKey().accept(target.getSource()))
@@ -230,53 +259,96 @@ public class Finder {
         Object fieldValue = null;
         try {
             while(target.hasNextFieldValue()) {
-                fieldValue = target.nextFieldValue();
+                // skip anything none of the filters could ever find something in without even reading it...
+                if (!canReach(target.nextField()))
+                    continue;
 
                 // skip nulls...
+                fieldValue = target.currentFieldValue();
                 if (fieldValue == null)
                     continue;
 
                 // add pojo or container or whatever this is...
-                if (!visited.contains(fieldValue) && !stack.contains(fieldValue))
-                    stack.add(new BeanContext(fieldValue));
-
-                // arrays...
-                if (fieldValue.getClass().isArray()) {
-                    if (!processArrays)
-                        continue;
-                    final Object arrayFieldValue = fieldValue;
-                    IntStream.range(0, Array.getLength(arrayFieldValue))
-                            .forEach(i -> {
-                                Object element = Array.get(arrayFieldValue, i);
-                                if (element != null && !visited.contains(element) && !stack.contains(element))
-                                    stack.add(new BeanContext(element));
-                            });
-
-                // collections...
-                } else if (fieldValue instanceof Collection<?>) {
-                    if (!processCollections)
-                        continue;
-                    ((Collection<?>)fieldValue).stream()
-                            .filter(element -> element != null && !visited.contains(element) && !stack.contains(element))
-                            .forEach(element -> stack.add(new BeanContext(element)));
-
-                // maps...
-                } else if (fieldValue instanceof Map<?, ?>) {
-                    if (!processMaps)
-                        continue;
-                    ((Map<?,?>)fieldValue).entrySet().stream()
-                            .forEach(entry -> {
-                                if (entry.getKey() != null && !visited.contains(entry.getKey()) && !stack.contains(entry.getKey()))
-                                    stack.add(new BeanContext(entry.getKey()));
-                                if (entry.getValue() != null && !visited.contains(entry.getValue()) && !stack.contains(entry.getValue()))
-                                    stack.add(new BeanContext(entry.getValue()));
-                            });
-                }
+                push(stack, seen, fieldValue);
+                pushElements(stack, seen, fieldValue);
             }
 
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
-}
 
+    /**
+     * Add the elements of an array, collection, or map to the stack if containers of its kind are being processed.
+     *
+     * @param stack stack of objects left to search
+     * @param seen set of objects already searched or waiting to be searched
+     * @param o object that may be a container
+     */
+    private void pushElements(Deque<BeanContext> stack, Set<Object> seen, Object o) {
+        // arrays...
+        if (o.getClass().isArray()) {
+            if (!processArrays)
+                return;
+            for (int i = 0; i < Array.getLength(o); i++)
+                push(stack, seen, Array.get(o, i));
+
+        // collections...
+        } else if (o instanceof Collection<?>) {
+            if (!processCollections)
+                return;
+            for (Object element : (Collection<?>) o)
+                push(stack, seen, element);
+
+        // maps...
+        } else if (o instanceof Map<?, ?>) {
+            if (!processMaps)
+                return;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) o).entrySet()) {
+                push(stack, seen, entry.getKey());
+                push(stack, seen, entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Add an object to the stack unless it has already been seen or cannot lead to a match.  Objects are tracked by
+     * identity so each one is searched exactly once no matter how many times it is referenced.
+     *
+     * @param stack stack of objects left to search
+     * @param seen set of objects already searched or waiting to be searched
+     * @param o object to add
+     */
+    private void push(Deque<BeanContext> stack, Set<Object> seen, Object o) {
+        if (o == null || seen.contains(o) || !canReach(o.getClass()))
+            return;
+        stack.add(new BeanContext(o, pruneUnreachable));
+        seen.add(o);
+    }
+
+    /**
+     * @param type class of an object about to be searched
+     * @return <code>true</code> if any filter could find something from an object of this class
+     */
+    private boolean canReach(Class<?> type) {
+        if (!pruneUnreachable)
+            return true;
+        for (Filter filter : filtersInterceptors.keySet())
+            if (filter.canReach(type))
+                return true;
+        return filtersInterceptors.isEmpty();
+    }
+
+    /**
+     * @param field field holding an object about to be searched
+     * @return <code>true</code> if any filter could find something from a value of this field
+     */
+    private boolean canReach(Field field) {
+        if (!pruneUnreachable)
+            return true;
+        for (Filter filter : filtersInterceptors.keySet())
+            if (filter.canReach(field))
+                return true;
+        return filtersInterceptors.isEmpty();
+    }
+}
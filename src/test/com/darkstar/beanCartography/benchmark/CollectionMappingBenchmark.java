@@ -0,0 +1,65 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.benchmark;
+
+import com.darkstar.beanCartography.Cartographer;
+import com.darkstar.supporting.Address;
+import com.darkstar.supporting.CompoundOrder;
+import com.darkstar.supporting.Person;
+
+/**
+ * Times copying an order holding a big list of people (each with a couple of residences).  This is not a unit test,
+ * run it by hand:
+ * <pre>
+ *     java -cp &lt;test and main classes&gt; com.darkstar.beanCartography.benchmark.CollectionMappingBenchmark [people]
+ * </pre>
+ *
+ * @author michael snavely
+ */
+public class CollectionMappingBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IllegalAccessException {
+        int people = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+
+        CompoundOrder order = new CompoundOrder();
+        for (int i = 0; i < people; i++) {
+            Person person = new Person.Builder().firstName("Joe" + i).lastName("Blow").phoneNumber("4025551212").build();
+            for (int j = 0; j < 2; j++) {
+                Address address = new Address();
+                address.setLine1(i + " Main St");
+                address.setCity("Bellevue");
+                person.getResidences().add(address);
+            }
+            order.getInternationalPeople().add(person);
+        }
+
+        Cartographer cartographer = new Cartographer.Builder().copyCollections(true).build();
+        for (int round = 0; round < ROUNDS; round++) {
+            CompoundOrder copy = new CompoundOrder();
+            long start = System.nanoTime();
+            cartographer.mapObject(order, copy);
+            long elapsed = System.nanoTime() - start;
+            if (copy.getInternationalPeople().size() != people)
+                throw new IllegalStateException("mapping went wrong");
+            System.out.printf("round %d: %,d people in %,d ms (%,d ns/person)%n",
+                    round, people, elapsed / 1_000_000, elapsed / people);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.benchmark;
+
+import com.darkstar.beanCartography.Cartographer;
+import com.darkstar.supporting.Address;
+import com.darkstar.supporting.Address2;
+import com.darkstar.supporting.Customer;
+import com.darkstar.supporting.OrderForm;
+
+/**
+ * Compares mapping through the Finder every time (no plans at all) with replaying mapping plans, both for a nested
+ * pair and for a flat pair whose plan is replayed without taking any shapes.  This is not a unit test, run it by hand:
+ * <pre>
+ *     java -cp &lt;test and main classes&gt; com.darkstar.beanCartography.benchmark.MappingBenchmark [iterations]
+ * </pre>
+ *
+ * @author michael snavely
+ */
+public class MappingBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * One mapping to time.
+     */
+    private interface Mapping {
+        int map(Cartographer mapper) throws IllegalAccessException;
+    }
+
+    public static void main(String[] args) throws IllegalAccessException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        Cartographer walked = new Cartographer.Builder().pruneUnreachable(false).build();
+        Cartographer replayed = new Cartographer();
+
+        Customer customer = new Customer.Builder().firstName("Joe").lastName("Blow").phoneNumber("4025551212").build();
+        customer.getResidences().setLine1("123 Main St");
+        customer.getResidences().setCity("Bellevue");
+        Mapping nested = mapper -> {
+            OrderForm orderForm = new OrderForm();
+            mapper.mapObject(customer, orderForm);
+            return orderForm.getFirstName().length();
+        };
+
+        Address address = new Address();
+        address.setLine1("123 Main St");
+        Mapping flat = mapper -> {
+            Address2 copy = new Address2();
+            mapper.mapObject(address, copy);
+            return copy.getLine1().length();
+        };
+
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.printf("round %d nested: walked %,d ns/op, replayed %,d ns/op%n",
+                    round, time(walked, nested, iterations), time(replayed, nested, iterations));
+            System.out.printf("round %d flat:   walked %,d ns/op, replayed %,d ns/op%n",
+                    round, time(walked, flat, iterations), time(replayed, flat, iterations));
+        }
+    }
+
+    /**
+     * @return average nanoseconds per mapping
+     */
+    private static long time(Cartographer mapper, Mapping mapping, int iterations) throws IllegalAccessException {
+        int expected = mapping.map(mapper);
+        int check = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            check += mapping.map(mapper);
+        long elapsed = System.nanoTime() - start;
+        if (check != iterations * expected || expected == 0)
+            throw new IllegalStateException("mapping went wrong");
+        return elapsed / iterations;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.benchmark;
+
+import com.darkstar.beanCartography.Cartographer;
+import com.darkstar.supporting.Customer;
+import com.darkstar.supporting.OrderForm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Shows how parallel batch mapping scales from one thread up to every core.  This is not a unit test, run it by hand:
+ * <pre>
+ *     java -cp &lt;test and main classes&gt; com.darkstar.beanCartography.benchmark.ParallelMappingBenchmark [batch size]
+ * </pre>
+ *
+ * @author michael snavely
+ */
+public class ParallelMappingBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int batchSize = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<Customer> customers = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            Customer customer = new Customer.Builder().firstName("Joe" + i).lastName("Blow").phoneNumber("4025551212").build();
+            customer.getResidences().setLine1(i + " Main St");
+            customers.add(customer);
+        }
+
+        Cartographer mapper = new Cartographer.Builder().build();
+        int cores = Runtime.getRuntime().availableProcessors();
+        long single = 0;
+        for (int threads = 1; threads <= cores; threads = threads < cores && threads * 2 > cores ? cores : threads * 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                long best = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    List<OrderForm> orderForms = mapper.mapAllParallel(customers, OrderForm::new, pool);
+                    best = Math.min(best, System.nanoTime() - start);
+                    if (orderForms.size() != batchSize)
+                        throw new IllegalStateException("mapping went wrong");
+                }
+                if (threads == 1)
+                    single = best;
+                System.out.printf("%3d threads: %,6d ms, %,10d mappings/s, speedup %.2f%n",
+                        threads, best / 1_000_000, batchSize * 1_000_000_000L / best, (double) single / best);
+            } finally {
+                pool.shutdown();
+            }
+            if (threads == cores)
+                break;
+        }
+    }
+}
@@ -18,18 +18,41 @@
 package com.darkstar.beanCartography.mapper;
 
 import com.darkstar.beanCartography.Cartographer;
+import com.darkstar.beanCartography.ContainerFactory;
+import com.darkstar.beanCartography.DefaultContainerFactory;
+import com.darkstar.beanCartography.FieldFormatter;
+import com.darkstar.beanCartography.annotations.NamedClass;
+import com.darkstar.beanCartography.annotations.NamedField;
 import com.darkstar.supporting.*;
 import org.junit.Test;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Since the target (i.e. new) object map drives this process, if there are null objects in the target they will
@@ -271,6 +294,65 @@ public class CartographerTest {
         assertThat(repo2.getZipCodes()[4], equalTo(68154));
     }
 
+    @NamedClass(name = "Readings")
+    public static class Readings {
+        @NamedField(name = "Samples")
+        private double[] samples = null;
+
+        @NamedField(name = "Counts")
+        private int[] counts = null;
+
+        @NamedField(name = "Labels")
+        private String[] labels = null;
+
+        @NamedField(name = "Grid")
+        private int[][] grid = null;
+    }
+
+    @NamedClass(name = "WideReadings")
+    public static class WideReadings {
+        @NamedField(name = "Samples")
+        private double[] samples = null;
+
+        @NamedField(name = "Counts")
+        private double[] counts = null;
+
+        @NamedField(name = "Labels")
+        private Object[] labels = null;
+
+        @NamedField(name = "Grid")
+        private long[][] grid = null;
+    }
+
+    @Test
+    public void arrayTestBulkTerminal() throws IllegalAccessException {
+        Readings readings = new Readings();
+        readings.samples = new double[100_000];
+        for (int i = 0; i < readings.samples.length; i++)
+            readings.samples[i] = i * 0.5;
+        readings.counts = new int[] {1, 2, Integer.MAX_VALUE};
+        readings.labels = new String[] {"a", "b"};
+        readings.grid = new int[][] {{1, 2}, {3}};
+
+        Readings copy = new Readings();
+        Cartographer mapper = new Cartographer(true);
+        mapper.mapObject(readings, copy);
+        assertTrue(copy.samples != readings.samples);
+        assertTrue(Arrays.equals(copy.samples, readings.samples));
+        assertTrue(Arrays.equals(copy.counts, readings.counts));
+        assertTrue(Arrays.equals(copy.labels, readings.labels));
+        assertTrue(Arrays.deepEquals(copy.grid, readings.grid));
+        assertTrue(copy.grid[0] != readings.grid[0]);
+
+        // primitives are widened and references go into wider component types...
+        WideReadings wide = new WideReadings();
+        mapper.mapObject(readings, wide);
+        assertThat(wide.samples[99_999], equalTo(99_999 * 0.5));
+        assertThat(wide.counts[2], equalTo((double) Integer.MAX_VALUE));
+        assertThat(wide.labels[1], equalTo((Object) "b"));
+        assertThat(wide.grid[1][0], equalTo(3L));
+    }
+
     /**
      * The source and targets must at least match on general 'type'.  i.e. both must be maps, collections, or
      * arrays.
@@ -806,5 +888,680 @@ public class CartographerTest {
         assertThat("NE", equalTo(orderForm.getState()));
         assertThat("68147", equalTo(orderForm.getZip()));
     }
-}
 
+    @Test
+    public void testRepeatedMappingSameCartographer() throws IllegalAccessException {
+        Cartographer mapper = new Cartographer();
+
+        for (int i = 0; i < 3; i++) {
+            Customer customer = new Customer.Builder().firstName("Joe" + i).lastName("Blow").phoneNumber("402555121" + i).build();
+            customer.getResidences().setLine1(i + " Main St");
+            customer.getResidences().setZip("6814" + i);
+            OrderForm orderForm = new OrderForm();
+
+            mapper.mapObject(customer, orderForm);
+
+            assertThat(orderForm.getFirstName(), equalTo("Joe" + i));
+            assertThat(orderForm.getLastName(), equalTo("Blow"));
+            assertThat(orderForm.getPhoneNumber(), equalTo("402555121" + i));
+            assertThat(orderForm.getLine1(), equalTo(i + " Main St"));
+            assertThat(orderForm.getZip(), equalTo("6814" + i));
+        }
+
+        // a different shape of the same classes must not reuse the copies made for the first shape...
+        Customer customer = new Customer.Builder().firstName("Tina").lastName("Fey").build();
+        customer.setResidences(null);
+        OrderForm orderForm = new OrderForm();
+        orderForm.setLine1("unchanged");
+
+        mapper.mapObject(customer, orderForm);
+
+        assertThat(orderForm.getFirstName(), equalTo("Tina"));
+        assertThat(orderForm.getLastName(), equalTo("Fey"));
+        assertThat(orderForm.getPhoneNumber(), nullValue());
+        assertThat(orderForm.getLine1(), equalTo("unchanged"));
+    }
+
+    @Test
+    public void testReplayedPlans() throws IllegalAccessException {
+        Cartographer mapper = new Cartographer(true);
+        mapper.addFieldFormatter("PhoneNumber", obj -> obj == null ? null : "+1" + obj);
+
+        // the first mapping records the plan, the rest replay it...
+        for (int i = 0; i < 3; i++) {
+            Customer customer = new Customer.Builder().firstName("Joe" + i).lastName("Blow").phoneNumber("402555121" + i).build();
+            customer.getResidences().setLine1(i + " Main St");
+            OrderForm orderForm = new OrderForm();
+
+            mapper.mapObject(customer, orderForm);
+
+            assertThat(orderForm.getFirstName(), equalTo("Joe" + i));
+            assertThat(orderForm.getLastName(), equalTo("Blow"));
+            assertThat(orderForm.getPhoneNumber(), equalTo("+1402555121" + i));
+            assertThat(orderForm.getLine1(), equalTo(i + " Main St"));
+        }
+
+        for (int i = 0; i < 3; i++) {
+            InternationalPerson iPerson1 = new InternationalPerson();
+            iPerson1.setFirstName("Joe" + i);
+            iPerson1.setAliases(Arrays.asList("123", "456"));
+            InternationalPerson iPerson2 = new InternationalPerson();
+
+            mapper.mapObject(iPerson1, iPerson2);
+
+            assertThat(iPerson2.getFirstName(), equalTo("Joe" + i));
+            assertThat(iPerson2.getAliases().size(), equalTo(2));
+            assertThat(iPerson2.getAliases().get(1), equalTo("456"));
+        }
+    }
+
+    @Test
+    public void testBuiltCartographerIsImmutable() {
+        Cartographer mapper = new Cartographer.Builder().copyCollections(true).build();
+        try {
+            mapper.addFieldFormatter("PhoneNumber", obj -> obj);
+            assertTrue(false);
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), equalTo("Cartographer was built immutable"));
+        }
+    }
+
+    @Test
+    public void testConcurrentMapping() throws Exception {
+        Cartographer mapper = new Cartographer.Builder()
+                .copyCollections(true)
+                .fieldFormatter("PhoneNumber", obj -> obj == null ? null : "+1" + obj)
+                .build();
+
+        // hundreds of threads sharing one mapper and its plans...
+        ExecutorService executor = Executors.newFixedThreadPool(200);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int t = 0; t < 200; t++) {
+                final int thread = t;
+                tasks.add(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        String id = thread + "-" + i;
+                        Customer customer = new Customer.Builder().firstName("Joe" + id).lastName("Blow").phoneNumber(id).build();
+                        customer.getResidences().setLine1(id + " Main St");
+                        OrderForm orderForm = new OrderForm();
+                        mapper.mapObject(customer, orderForm);
+
+                        InternationalPerson iPerson1 = new InternationalPerson();
+                        iPerson1.setFirstName("Joe" + id);
+                        iPerson1.setAliases(Arrays.asList(id, "456"));
+                        InternationalPerson iPerson2 = new InternationalPerson();
+                        mapper.mapObject(iPerson1, iPerson2);
+
+                        if (!orderForm.getFirstName().equals("Joe" + id) ||
+                                !orderForm.getPhoneNumber().equals("+1" + id) ||
+                                !orderForm.getLine1().equals(id + " Main St") ||
+                                !iPerson2.getFirstName().equals("Joe" + id) ||
+                                !iPerson2.getAliases().equals(Arrays.asList(id, "456")))
+                            return false;
+                    }
+                    return true;
+                });
+            }
+            for (Future<Boolean> result : executor.invokeAll(tasks))
+                assertTrue(result.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testMapAll() {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Customer customer = new Customer.Builder().firstName("Joe" + i).lastName("Blow").phoneNumber("402555" + i).build();
+            customer.getResidences().setZip("6814" + i);
+            customers.add(customer);
+        }
+        customers.add(5, null);
+
+        List<OrderForm> orderForms = new Cartographer.Builder().build().mapAll(customers, OrderForm::new);
+
+        assertThat(orderForms.size(), equalTo(101));
+        assertThat(orderForms.get(5), nullValue());
+        for (int i = 0; i < 101; i++) {
+            if (i == 5)
+                continue;
+            int n = i < 5 ? i : i - 1;
+            assertThat(orderForms.get(i).getFirstName(), equalTo("Joe" + n));
+            assertThat(orderForms.get(i).getPhoneNumber(), equalTo("402555" + n));
+            assertThat(orderForms.get(i).getZip(), equalTo("6814" + n));
+        }
+    }
+
+    @Test
+    public void testMapStream() {
+        Cartographer cartographer = new Cartographer.Builder().build();
+
+        // only what is consumed gets mapped...
+        AtomicInteger created = new AtomicInteger();
+        Stream<Customer> customers = Stream.iterate(0, i -> i + 1)
+                .map(i -> i == 2 ? null : new Customer.Builder().firstName("Joe" + i).build());
+        List<OrderForm> orderForms = cartographer.mapStream(customers, () -> {
+            created.incrementAndGet();
+            return new OrderForm();
+        }).limit(5).collect(Collectors.toList());
+        assertThat(orderForms.size(), equalTo(5));
+        assertThat(orderForms.get(2), nullValue());
+        assertThat(orderForms.get(4).getFirstName(), equalTo("Joe4"));
+        assertThat(created.get(), equalTo(4));
+
+        // parallel streams split and still keep the order...
+        orderForms = cartographer.mapStream(IntStream.range(0, 5000).parallel()
+                .mapToObj(i -> new Customer.Builder().firstName("Joe" + i).build()), OrderForm::new)
+                .collect(Collectors.toList());
+        for (int i = 0; i < 5000; i++)
+            assertThat(orderForms.get(i).getFirstName(), equalTo("Joe" + i));
+
+        Iterator<OrderForm> iterator = cartographer.mapIterator(Arrays.asList(
+                new Customer.Builder().firstName("Joe").build(),
+                new Customer.Builder().firstName("Jane").build()).iterator(), OrderForm::new);
+        assertThat(iterator.next().getFirstName(), equalTo("Joe"));
+        assertThat(iterator.next().getFirstName(), equalTo("Jane"));
+        assertThat(iterator.hasNext(), equalTo(false));
+    }
+
+    @Test
+    public void testPrimitiveFieldFormatters() throws IllegalAccessException {
+        // the boxing format(Object) must not be used for fields of the formatter's own primitive type...
+        FieldFormatter.OfInt doubleQuantity = new FieldFormatter.OfInt() {
+            @Override
+            public int formatInt(int value) {
+                return value * 2;
+            }
+
+            @Override
+            public Object format(Object obj) {
+                throw new IllegalStateException("boxed");
+            }
+        };
+        FieldFormatter.OfDouble discount = price -> price * 0.5;
+        FieldFormatter.OfBoolean negate = taxable -> !taxable;
+        FieldFormatter.ToInt length = obj -> String.valueOf(obj).length();
+
+        for (boolean walked : new boolean[] {true, false}) {
+            Cartographer cartographer = new Cartographer.Builder()
+                    .pruneUnreachable(!walked)
+                    .fieldFormatter("Quantity", doubleQuantity)
+                    .fieldFormatter("Price", discount)
+                    .fieldFormatter("Taxable", negate)
+                    .build();
+            for (int i = 0; i < 3; i++) {
+                Item source = new Item.Builder().sku("12345").quantity(21).price(9.5).taxable(true).build();
+                Item target = new Item();
+                cartographer.mapObject(source, target);
+                assertThat(target.getSku(), equalTo("12345"));
+                assertThat(target.getQuantity(), equalTo(42));
+                assertThat(target.getPrice(), equalTo(4.75));
+                assertThat(target.isTaxable(), equalTo(false));
+            }
+        }
+
+        // formatters into primitives take any source and the Object path still works for the others...
+        Cartographer cartographer = new Cartographer.Builder().fieldFormatter("Quantity", length).build();
+        Item target = new Item();
+        cartographer.mapObject(new Item.Builder().quantity(7).build(), target);
+        assertThat(target.getQuantity(), equalTo(1));
+        assertThat(length.format("abc"), equalTo((Object) 3));
+        assertThat(discount.format(3), equalTo((Object) 1.5));
+    }
+
+    @Test
+    public void testTypedFieldFormatters() throws IllegalAccessException {
+        for (boolean walked : new boolean[] {true, false}) {
+            Cartographer cartographer = new Cartographer.Builder()
+                    .pruneUnreachable(!walked)
+                    .fieldFormatter("Quantity", obj -> -1)
+                    .fieldFormatter("Quantity", int.class, Integer.class, (FieldFormatter.OfInt) quantity -> quantity + 1)
+                    .fieldFormatter("Sku", obj -> "sku-" + obj)
+                    .converter(String.class, String.class, obj -> ((String) obj).toUpperCase())
+                    .build();
+            for (int i = 0; i < 3; i++) {
+                Item target = new Item();
+                cartographer.mapObject(new Item.Builder().sku("abc").description("a test item").quantity(41).build(), target);
+                assertThat(target.getQuantity(), equalTo(42));
+                assertThat(target.getSku(), equalTo("sku-abc"));
+                assertThat(target.getDescription(), equalTo("A TEST ITEM"));
+            }
+        }
+
+        // formatters added after a plan was recorded are still picked up...
+        Cartographer cartographer = new Cartographer();
+        for (int i = 0; i < 3; i++) {
+            Item target = new Item();
+            cartographer.mapObject(new Item.Builder().sku("abc").build(), target);
+            assertThat(target.getSku(), equalTo("abc"));
+        }
+        cartographer.addConverter(String.class, String.class, obj -> obj + "!");
+        Item target = new Item();
+        cartographer.mapObject(new Item.Builder().sku("abc").build(), target);
+        assertThat(target.getSku(), equalTo("abc!"));
+    }
+
+    @Test
+    public void testLargeHomogeneousCollection() throws IllegalAccessException {
+        CompoundOrder order = new CompoundOrder();
+        for (int i = 0; i < 500; i++) {
+            Address address = new Address();
+            address.setCity("City" + i);
+            Person person = new Person.Builder().firstName("Joe" + i).build();
+            person.getResidences().add(address);
+            order.getInternationalPeople().add(person);
+        }
+
+        CompoundOrder copy = new CompoundOrder();
+        new Cartographer(true).mapObject(order, copy);
+        assertThat(copy.getInternationalPeople().size(), equalTo(500));
+        for (int i = 0; i < 500; i++) {
+            Person person = copy.getInternationalPeople().get(i);
+            assertThat(person.getFirstName(), equalTo("Joe" + i));
+            assertThat(person.getResidences().size(), equalTo(1));
+            assertThat(person.getResidences().get(0).getCity(), equalTo("City" + i));
+            assertTrue(person != order.getInternationalPeople().get(i));
+        }
+    }
+
+    @NamedClass(name = "Directory")
+    public static class Directory {
+        @NamedField(name = "Listings")
+        private List<Map<String, Address>> listings = new ArrayList<>();
+    }
+
+    @Test
+    public void testNestedGenericCollection() throws IllegalAccessException {
+        Address address = new Address();
+        address.setCity("Omaha");
+        Map<String, Address> listing = new HashMap<>();
+        listing.put("home", address);
+        Directory directory = new Directory();
+        directory.listings.add(listing);
+
+        Directory copy = new Directory();
+        new Cartographer(true).mapObject(directory, copy);
+        assertThat(copy.listings.size(), equalTo(1));
+        Address addressCopy = copy.listings.get(0).get("home");
+        assertThat(addressCopy.getCity(), equalTo("Omaha"));
+        assertTrue(addressCopy != address);
+        assertTrue(copy.listings.get(0) != listing);
+    }
+
+    @Test
+    public void testInheritedCollectionAdd() throws IllegalAccessException {
+        Address address = new Address();
+        address.setCity("Omaha");
+        Person person = new Person.Builder().firstName("Joe").build();
+        person.getResidences().add(address);
+
+        // a synchronized list inherits add from its super class...
+        Person target = new Person.Builder().build();
+        target.setResidences(Collections.synchronizedList(new ArrayList<>()));
+        new Cartographer(true).mapObject(person, target);
+        assertThat(target.getResidences().size(), equalTo(1));
+        assertThat(target.getResidences().get(0).getCity(), equalTo("Omaha"));
+    }
+
+    @NamedClass(name = "Node")
+    public static class Node {
+        @NamedField(name = "Label")
+        private String label = null;
+
+        @NamedField(name = "Children")
+        private List<Node> children = new ArrayList<>();
+    }
+
+    @Test
+    public void testPreserveIdentity() throws IllegalAccessException {
+        Address address = new Address();
+        address.setCity("Omaha");
+        Person person = new Person.Builder().firstName("Joe").build();
+        person.getResidences().add(address);
+        person.getResidences().add(address);
+
+        Person target = new Person.Builder().build();
+        new Cartographer(true).mapObject(person, target);
+        assertThat(target.getResidences().size(), equalTo(2));
+        assertTrue(target.getResidences().get(0) != target.getResidences().get(1));
+
+        // the same source address is mapped once and shared in the target...
+        Cartographer cartographer = new Cartographer.Builder().copyCollections(true).preserveIdentity(true).build();
+        target = new Person.Builder().build();
+        cartographer.mapObject(person, target);
+        assertThat(target.getResidences().size(), equalTo(2));
+        assertThat(target.getResidences().get(0).getCity(), equalTo("Omaha"));
+        assertTrue(target.getResidences().get(0) == target.getResidences().get(1));
+
+        // cycles come out as cycles...
+        Node parent = new Node();
+        parent.label = "parent";
+        Node child = new Node();
+        child.label = "child";
+        parent.children.add(child);
+        child.children.add(parent);
+
+        Node parentCopy = new Node();
+        cartographer.mapObject(parent, parentCopy);
+        assertThat(parentCopy.label, equalTo("parent"));
+        assertThat(parentCopy.children.size(), equalTo(1));
+        Node childCopy = parentCopy.children.get(0);
+        assertThat(childCopy.label, equalTo("child"));
+        assertTrue(childCopy.children.get(0) == parentCopy);
+    }
+
+    @NamedClass(name = "Ledger")
+    public static class Ledger {
+        @NamedField(name = "Amounts")
+        private List<Integer> amounts = null;
+
+        @NamedField(name = "Tags")
+        private Set<String> tags = null;
+
+        @NamedField(name = "Addresses")
+        private Map<String, Address> addresses = null;
+    }
+
+    @Test
+    public void testContainerFactory() throws IllegalAccessException {
+        Address address = new Address();
+        address.setCity("Omaha");
+        Ledger ledger = new Ledger();
+        ledger.amounts = new ArrayList<>(Arrays.asList(1, 2, 3));
+        ledger.tags = new HashSet<>(Collections.singletonList("paid"));
+        ledger.addresses = new HashMap<>();
+        ledger.addresses.put("home", address);
+
+        // missing target containers are created...
+        Ledger copy = new Ledger();
+        new Cartographer(true).mapObject(ledger, copy);
+        assertThat(copy.amounts, equalTo(ledger.amounts));
+        assertThat(copy.tags, equalTo(ledger.tags));
+        assertThat(copy.addresses.get("home").getCity(), equalTo("Omaha"));
+        assertTrue(copy.addresses.get("home") != address);
+        copy.amounts.add(4);
+
+        // ...by whatever factory is given...
+        ContainerFactory factory = new DefaultContainerFactory.Builder().primitiveLists(true).unmodifiable(true).build();
+        copy = new Ledger();
+        new Cartographer.Builder().copyCollections(true).containerFactory(factory).build().mapObject(ledger, copy);
+        assertThat(copy.amounts, equalTo(ledger.amounts));
+        assertThat(copy.tags, equalTo(ledger.tags));
+        assertThat(copy.addresses.get("home").getCity(), equalTo("Omaha"));
+        try {
+            copy.amounts.add(4);
+            fail("target list should be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected...
+        }
+
+        // ...but existing target containers are filled as they are...
+        copy = new Ledger();
+        copy.amounts = new ArrayList<>();
+        new Cartographer.Builder().copyCollections(true).containerFactory(factory).build().mapObject(ledger, copy);
+        copy.amounts.add(4);
+        assertThat(copy.amounts.size(), equalTo(4));
+    }
+
+    @Test
+    public void testTargetDriven() throws IllegalAccessException {
+        Address address = new Address();
+        address.setCity("Omaha");
+        CompoundOrder order = new CompoundOrder();
+        order.setMainAddress(address);
+        order.getInternationalPeople().add(new Person.Builder().firstName("Joe").build());
+
+        // walking the target finds no address to copy into...
+        CompoundOrder copy = new CompoundOrder();
+        new Cartographer(true).mapObject(order, copy);
+        assertThat(copy.getMainAddress(), nullValue());
+
+        // ...but the target class says where one goes...
+        Cartographer cartographer = new Cartographer.Builder().copyCollections(true).targetDriven(true).build();
+        for (int i = 0; i < 2; i++) {
+            copy = new CompoundOrder();
+            cartographer.mapObject(order, copy);
+            assertThat(copy.getMainAddress().getCity(), equalTo("Omaha"));
+            assertTrue(copy.getMainAddress() != address);
+            assertThat(copy.getInternationalPeople().get(0).getFirstName(), equalTo("Joe"));
+        }
+
+        // existing nested targets are filled in place...
+        Address existing = new Address();
+        copy = new CompoundOrder();
+        copy.setMainAddress(existing);
+        cartographer.mapObject(order, copy);
+        assertTrue(copy.getMainAddress() == existing);
+        assertThat(existing.getCity(), equalTo("Omaha"));
+
+        // ...and nested targets nothing is copied into are never created...
+        order.setMainAddress(null);
+        copy = new CompoundOrder();
+        cartographer.mapObject(order, copy);
+        assertThat(copy.getMainAddress(), nullValue());
+        assertThat(copy.getInternationalPeople().size(), equalTo(1));
+    }
+
+    @Test
+    public void testFormatterWithSource() throws IllegalAccessException {
+        Customer customer = new Customer.Builder().firstName("Joe").lastName("Blow").phoneNumber("4025551212").build();
+        FieldFormatter.WithSource fullName = (value, source) -> value + " " + source.getField("LastName").getInstance();
+
+        // the formatter sees the source index whether names are matched or plans are replayed
+        for (Cartographer.Builder builder : Arrays.asList(
+                new Cartographer.Builder().pruneUnreachable(false),
+                new Cartographer.Builder())) {
+            Cartographer mapper = builder.fieldFormatter("FirstName", fullName).build();
+            for (int i = 0; i < 2; i++) {
+                OrderForm orderForm = new OrderForm();
+                mapper.mapObject(customer, orderForm);
+                assertThat(orderForm.getFirstName(), equalTo("Joe Blow"));
+                assertThat(orderForm.getLastName(), equalTo("Blow"));
+            }
+        }
+    }
+
+    @Test
+    public void testListSizes() throws IllegalAccessException {
+        // lists of every size have their elements mapped...
+        Cartographer cartographer = new Cartographer.Builder().copyCollections(true).build();
+        CompoundOrder order = new CompoundOrder();
+        for (int size = 0; size < 20; size++) {
+            CompoundOrder copy = new CompoundOrder();
+            cartographer.mapObject(order, copy);
+            assertThat(copy.getInternationalPeople().size(), equalTo(size));
+            for (int i = 0; i < size; i++)
+                assertThat(copy.getInternationalPeople().get(i).getFirstName(), equalTo("Joe" + i));
+            order.getInternationalPeople().add(new Person.Builder().firstName("Joe" + size).build());
+        }
+    }
+
+    @Test
+    public void testNamesInsideSourceContainer() throws IllegalAccessException {
+        Person person = new Person.Builder().firstName("Joe").build();
+        Address address = new Address();
+        address.setCity("Omaha");
+        person.getResidences().add(address);
+
+        // the names inside a source list are matched against the target on every call, not just the first...
+        Cartographer cartographer = new Cartographer.Builder().copyCollections(true).build();
+        for (int i = 0; i < 2; i++) {
+            Customer customer = new Customer();
+            cartographer.mapObject(person, customer);
+            assertThat(customer.getFirstName(), equalTo("Joe"));
+            assertThat(customer.getResidences().getCity(), equalTo("Omaha"));
+        }
+    }
+
+    @NamedClass(name = "Address")
+    public static class CountyAddress extends Address {
+        @NamedField(name = "County")
+        private String county = null;
+    }
+
+    @Test
+    public void testTargetDrivenSubclass() throws IllegalAccessException {
+        CountyAddress address = new CountyAddress();
+        address.setCity("Omaha");
+        address.county = "Douglas";
+        CompoundOrder order = new CompoundOrder();
+        order.setMainAddress(address);
+
+        // a target field already holding a subclass of its declared type is walked so the subclass' names are found...
+        Cartographer cartographer = new Cartographer.Builder().targetDriven(true).build();
+        for (int i = 0; i < 2; i++) {
+            CountyAddress existing = new CountyAddress();
+            CompoundOrder copy = new CompoundOrder();
+            copy.setMainAddress(existing);
+            cartographer.mapObject(order, copy);
+            assertThat(existing.getCity(), equalTo("Omaha"));
+            assertThat(existing.county, equalTo("Douglas"));
+        }
+    }
+
+    public static class Base {
+    }
+
+    @NamedClass(name = "PostalSub")
+    public static class Sub extends Base {
+        @NamedField(name = "Zip")
+        private String zip = null;
+    }
+
+    @NamedClass(name = "PostalNamed")
+    public static class Named implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @NamedField(name = "Zip")
+        private String zip = null;
+    }
+
+    public static class Envelope {
+        private Base base = null;
+        private Serializable payload = null;
+    }
+
+    @NamedClass(name = "ZipCard")
+    public static class ZipCard {
+        @NamedField(name = "Zip")
+        private String zip = null;
+    }
+
+    @Test
+    public void testNamedSubclassBehindDeclaredType() throws IllegalAccessException {
+        // a field declared as an unnamed class can still hold a named subclass...
+        Sub sub = new Sub();
+        sub.zip = "68147";
+        Envelope envelope = new Envelope();
+        envelope.base = sub;
+
+        // ...and one declared as a jdk interface can hold a named implementation...
+        Named named = new Named();
+        named.zip = "12345";
+        Envelope other = new Envelope();
+        other.payload = named;
+
+        for (boolean prune : new boolean[] {true, false}) {
+            Cartographer mapper = new Cartographer.Builder().pruneUnreachable(prune).build();
+            for (int i = 0; i < 2; i++) {
+                ZipCard card = new ZipCard();
+                mapper.mapObject(envelope, card);
+                assertThat(card.zip, equalTo("68147"));
+
+                card = new ZipCard();
+                mapper.mapObject(other, card);
+                assertThat(card.zip, equalTo("12345"));
+            }
+        }
+    }
+
+    @NamedClass(name = "NameCard")
+    public static class NameCard {
+        @NamedField(name = "FirstName")
+        private String firstName = null;
+
+        @NamedField(name = "City")
+        private String city = null;
+    }
+
+    @Test
+    public void testLazySource() throws IllegalAccessException {
+        Address address = new Address();
+        address.setLine1("123 Main St");
+        address.setCity("Bellevue");
+        Customer customer = new Customer.Builder().firstName("Joe").lastName("Blow").phoneNumber("4025551212").build();
+        customer.setResidences(address);
+
+        // both with mapping plans and with a complete search every time...
+        for (boolean prune : new boolean[] {true, false}) {
+            Cartographer mapper = new Cartographer.Builder().lazySource(true).pruneUnreachable(prune).build();
+            for (int i = 0; i < 2; i++) {
+                NameCard card = new NameCard();
+                mapper.mapObject(customer, card);
+                assertThat(card.firstName, equalTo("Joe"));
+                assertThat(card.city, equalTo("Bellevue"));
+
+                OrderForm orderForm = new OrderForm();
+                mapper.mapObject(customer, orderForm);
+                assertThat(orderForm.getLastName(), equalTo("Blow"));
+                assertThat(orderForm.getLine1(), equalTo("123 Main St"));
+            }
+        }
+    }
+
+    @Test
+    public void testMapObjectAsync() {
+        // a formatter that blocks like a lookup against a file or service would...
+        Cartographer cartographer = new Cartographer.Builder()
+                .fieldFormatter("PhoneNumber", phoneNumber -> {
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "(" + phoneNumber + ")";
+                })
+                .build();
+
+        List<CompletableFuture<OrderForm>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Customer customer = new Customer.Builder().firstName("Joe" + i).phoneNumber("402555" + i).build();
+            futures.add(cartographer.mapObjectAsync(customer, new OrderForm()));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            OrderForm orderForm = futures.get(i).join();
+            assertThat(orderForm.getFirstName(), equalTo("Joe" + i));
+            assertThat(orderForm.getPhoneNumber(), equalTo("(402555" + i + ")"));
+        }
+    }
+
+    @Test
+    public void testMapAllParallel() {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Customer customer = new Customer.Builder().firstName("Joe" + i).phoneNumber("402555" + i).build();
+            customers.add(i % 1000 == 0 ? null : customer);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<OrderForm> orderForms = new Cartographer.Builder().build().mapAllParallel(customers, OrderForm::new, pool);
+
+            // order is kept no matter which thread mapped which chunk...
+            assertThat(orderForms.size(), equalTo(5000));
+            for (int i = 0; i < 5000; i++) {
+                if (i % 1000 == 0)
+                    assertThat(orderForms.get(i), nullValue());
+                else {
+                    assertThat(orderForms.get(i).getFirstName(), equalTo("Joe" + i));
+                    assertThat(orderForms.get(i).getPhoneNumber(), equalTo("402555" + i));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
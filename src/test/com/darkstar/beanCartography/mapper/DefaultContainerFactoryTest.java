@@ -0,0 +1,123 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.mapper;
+
+import com.darkstar.beanCartography.DefaultContainerFactory;
+import com.google.common.reflect.TypeToken;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author michael snavely
+ */
+public class DefaultContainerFactoryTest {
+
+    public static class Names extends ArrayList<String> {
+        private static final long serialVersionUID = 1L;
+    }
+
+    @Test
+    public void createTest() throws ReflectiveOperationException {
+        DefaultContainerFactory factory = new DefaultContainerFactory();
+        assertThat(factory.newCollection(new TypeToken<List<String>>() {}.getType(), 10), instanceOf(ArrayList.class));
+        assertThat(factory.newCollection(new TypeToken<Set<String>>() {}.getType(), 10), instanceOf(LinkedHashSet.class));
+        assertThat(factory.newCollection(SortedSet.class, 10), instanceOf(TreeSet.class));
+        assertThat(factory.newCollection(LinkedHashSet.class, 10), instanceOf(LinkedHashSet.class));
+
+        // concrete types are created as exactly that type whether or not they can be sized...
+        assertTrue(factory.newCollection(new TypeToken<ArrayList<String>>() {}.getType(), 10).getClass() == ArrayList.class);
+        assertTrue(factory.newCollection(ArrayDeque.class, 0).getClass() == ArrayDeque.class);
+        assertTrue(factory.newCollection(HashSet.class, 10).getClass() == HashSet.class);
+        assertTrue(factory.newCollection(Names.class, 10).getClass() == Names.class);
+        assertTrue(factory.newMap(HashMap.class, 10).getClass() == HashMap.class);
+        assertTrue(factory.newMap(new TypeToken<LinkedHashMap<String, String>>() {}.getType(), 0).getClass() == LinkedHashMap.class);
+        assertTrue(factory.newMap(TreeMap.class, 10).getClass() == TreeMap.class);
+        assertThat(factory.newMap(Map.class, 10), instanceOf(LinkedHashMap.class));
+        assertThat(factory.newMap(NavigableMap.class, 10), instanceOf(TreeMap.class));
+        assertThat(factory.newArray(String.class, 3), instanceOf(String[].class));
+    }
+
+    @Test
+    public void primitiveListTest() throws ReflectiveOperationException {
+        DefaultContainerFactory factory = new DefaultContainerFactory.Builder().primitiveLists(true).build();
+        Collection<Object> ints = factory.newCollection(new TypeToken<List<Integer>>() {}.getType(), 1);
+        assertTrue(!(ints instanceof ArrayList<?>));
+        for (int i = 0; i < 100; i++)
+            ints.add(i);
+        ((List<Object>) ints).add(0, -1);
+        ((List<Object>) ints).remove(100);
+        assertThat(ints.size(), equalTo(100));
+        assertThat(((List<Object>) ints).get(0), equalTo((Object) (-1)));
+        assertThat(((List<Object>) ints).get(99), equalTo((Object) 98));
+
+        Collection<Object> doubles = factory.newCollection(new TypeToken<Collection<Double>>() {}.getType(), 0);
+        doubles.add(1.5);
+        assertThat(doubles.iterator().next(), equalTo((Object) 1.5));
+        try {
+            doubles.add(null);
+            fail("primitive lists do not take nulls");
+        } catch (NullPointerException e) {
+            // expected...
+        }
+
+        // concrete and non numeric lists are left alone...
+        assertThat(factory.newCollection(new TypeToken<ArrayList<Integer>>() {}.getType(), 1), instanceOf(ArrayList.class));
+        assertThat(factory.newCollection(new TypeToken<List<String>>() {}.getType(), 1), instanceOf(ArrayList.class));
+    }
+
+    @Test
+    public void unmodifiableTest() throws ReflectiveOperationException {
+        DefaultContainerFactory factory = new DefaultContainerFactory.Builder().unmodifiable(true).build();
+        Collection<Object> set = factory.newCollection(SortedSet.class, 1);
+        set.add("a");
+        Object completed = factory.complete(SortedSet.class, set);
+        assertThat(completed, instanceOf(SortedSet.class));
+        @SuppressWarnings("unchecked")
+        SortedSet<Object> sorted = (SortedSet<Object>) completed;
+        try {
+            sorted.add("b");
+            fail("completed set should be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected...
+        }
+
+        // concrete declared types cannot be wrapped...
+        Collection<Object> list = factory.newCollection(ArrayList.class, 1);
+        assertTrue(factory.complete(ArrayList.class, list) == list);
+    }
+}
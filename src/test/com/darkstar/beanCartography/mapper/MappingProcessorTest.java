@@ -0,0 +1,181 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.mapper;
+
+import com.darkstar.beanCartography.Cartographer;
+import com.darkstar.beanCartography.MappingProcessor;
+import com.darkstar.supporting.Customer;
+import com.darkstar.supporting.OrderForm;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author michael snavely
+ */
+public class MappingProcessorTest {
+
+    /**
+     * Publishes a list of customers keeping track of the most demand it was ever asked for at once.
+     */
+    private static class CustomerPublisher implements Flow.Publisher<Customer> {
+        private final List<Customer> customers = new ArrayList<>();
+        private long outstanding = 0L;
+        private long maxOutstanding = 0L;
+        private int next = 0;
+        private boolean emitting = false;
+        private boolean cancelled = false;
+
+        private CustomerPublisher(int count) {
+            for (int i = 0; i < count; i++)
+                customers.add(new Customer.Builder().firstName("Joe" + i).build());
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Customer> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    synchronized (CustomerPublisher.this) {
+                        outstanding += n;
+                        maxOutstanding = Math.max(maxOutstanding, outstanding);
+                        if (emitting)
+                            return;
+                        emitting = true;
+                        while (outstanding > 0 && next < customers.size() && !cancelled) {
+                            outstanding--;
+                            subscriber.onNext(customers.get(next++));
+                        }
+                        if (next == customers.size() && !cancelled) {
+                            cancelled = true;
+                            subscriber.onComplete();
+                        }
+                        emitting = false;
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    synchronized (CustomerPublisher.this) {
+                        cancelled = true;
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Asks for a few order forms at a time and collects them.
+     */
+    private static class OrderFormSubscriber implements Flow.Subscriber<OrderForm> {
+        private final List<OrderForm> orderForms = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final int cancelAfter;
+        private Flow.Subscription subscription = null;
+        private volatile Throwable error = null;
+
+        private OrderFormSubscriber(int cancelAfter) {
+            this.cancelAfter = cancelAfter;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(10);
+        }
+
+        @Override
+        public void onNext(OrderForm item) {
+            orderForms.add(item);
+            if (orderForms.size() == cancelAfter) {
+                subscription.cancel();
+                finished.countDown();
+            } else if (orderForms.size() % 10 == 0)
+                subscription.request(10);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            finished.countDown();
+        }
+    }
+
+    @Test
+    public void mapTest() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            MappingProcessor<Customer, OrderForm> processor = new MappingProcessor.Builder<Customer, OrderForm>(new Cartographer(), OrderForm::new)
+                    .executor(executor)
+                    .batchSize(50)
+                    .build();
+            CustomerPublisher publisher = new CustomerPublisher(1000);
+            OrderFormSubscriber subscriber = new OrderFormSubscriber(-1);
+            processor.subscribe(subscriber);
+            publisher.subscribe(processor);
+
+            assertTrue(subscriber.finished.await(10, TimeUnit.SECONDS));
+            assertThat(subscriber.error, equalTo(null));
+            assertThat(subscriber.orderForms.size(), equalTo(1000));
+            for (int i = 0; i < 1000; i++)
+                assertThat(subscriber.orderForms.get(i).getFirstName(), equalTo("Joe" + i));
+
+            // upstream was never asked for more than a batch at once...
+            synchronized (publisher) {
+                assertTrue(publisher.maxOutstanding <= 50);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void cancelTest() throws InterruptedException {
+        MappingProcessor<Customer, OrderForm> processor = new MappingProcessor.Builder<Customer, OrderForm>(new Cartographer(), OrderForm::new)
+                .batchSize(20)
+                .build();
+        CustomerPublisher publisher = new CustomerPublisher(1000);
+        OrderFormSubscriber subscriber = new OrderFormSubscriber(25);
+        processor.subscribe(subscriber);
+        publisher.subscribe(processor);
+
+        assertTrue(subscriber.finished.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertThat(subscriber.orderForms.size(), equalTo(25));
+        synchronized (publisher) {
+            assertTrue(publisher.cancelled);
+            assertTrue(publisher.next < 1000);
+        }
+    }
+}
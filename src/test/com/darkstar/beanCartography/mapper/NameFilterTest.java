@@ -24,6 +24,8 @@ import com.darkstar.supporting.Order;
 import com.darkstar.supporting.Person;
 import org.junit.Test;
 
+import java.util.Collections;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNull.notNullValue;
@@ -50,5 +52,21 @@ public class NameFilterTest {
         assertThat(filter.accept(address), equalTo(true));
         assertThat(filter.accept(this), equalTo(false));
     }
+
+    @Test
+    public void namesTest() throws NoSuchFieldException {
+        NameFilter filter = new NameFilter(Collections.singleton("FirstName"));
+        assertThat(filter.canReach(Person.class), equalTo(true));
+        assertThat(filter.canReach(Address.class), equalTo(false));
+
+        // ...but a field declared as an Address could still hold a subclass carrying the name...
+        assertThat(filter.canReach(Person.class.getDeclaredField("residences")), equalTo(true));
+
+        // names further down still lead through the objects holding them...
+        filter = new NameFilter(Collections.singleton("City"));
+        assertThat(filter.canReach(Address.class), equalTo(true));
+        assertThat(filter.canReach(Person.class), equalTo(true));
+        assertThat(filter.canReach(Person.class.getDeclaredField("residences")), equalTo(true));
+    }
 }
 
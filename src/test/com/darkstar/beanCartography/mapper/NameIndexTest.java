@@ -0,0 +1,52 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.mapper;
+
+import com.darkstar.beanCartography.NameIndex;
+import com.darkstar.beanCartography.NamedClassBean;
+import com.darkstar.supporting.*;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+/**
+ * @author michael snavely
+ */
+public class NameIndexTest {
+
+    @Test
+    public void test() throws IllegalAccessException {
+        Customer customer = new Customer.Builder().firstName("Joe").lastName("Blow").phoneNumber("4025551212").build();
+        customer.getResidences().setLine1("123 Main St");
+
+        NameIndex index = NameIndex.of(customer, true);
+        assertThat(index.getClassBeans("Customer").size(), equalTo(1));
+        assertThat(index.getClassBeans("Customer").get(0).getInstances().get(0), sameInstance((Object) customer));
+        assertThat(index.getField("FirstName").getInstance(), equalTo((Object) "Joe"));
+        assertThat(index.getField("LineOne").getInstance(), equalTo((Object) "123 Main St"));
+        assertThat(index.getField("NoSuchName"), nullValue());
+        assertThat(index.getClassBeans("NoSuchName"), nullValue());
+
+        NamedClassBean bean = new NamedClassBean(customer.getResidences());
+        assertThat(bean.getField("LineOne").getInstance(), equalTo((Object) "123 Main St"));
+        assertThat(bean.getField("FirstName"), nullValue());
+    }
+}
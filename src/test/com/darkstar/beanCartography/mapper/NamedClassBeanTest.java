@@ -23,9 +23,13 @@ import com.darkstar.beanCartography.utils.Pair;
 import com.darkstar.supporting.*;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.HashSet;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -58,6 +62,20 @@ public class NamedClassBeanTest {
         }
     }
 
+    @Test
+    public void testSelectedFields() throws IllegalAccessException {
+        Address address = new Address();
+        address.setCity("Bellevue");
+        address.setZip("686147");
+
+        NamedClassBean bb = new NamedClassBean(address, new HashSet<>(Arrays.asList("City", "ZipCode", "Sku")));
+        assertThat(bb.getName(), equalTo("Address"));
+        assertThat(bb.getFields().size(), equalTo(2));
+        assertThat(bb.getField("City").getInstance(), equalTo((Object) "Bellevue"));
+        assertThat(bb.getField("ZipCode").getInstance(), equalTo((Object) "686147"));
+        assertThat(bb.getField("LineOne"), nullValue());
+    }
+
     @Test
     public void testNonBusinessClass() throws IllegalAccessException {
         Pair<String, String> pair = new Pair<>("testKey", "testValue");
@@ -0,0 +1,81 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.utils;
+
+import com.darkstar.beanCartography.NamePointerBean;
+import com.darkstar.supporting.AreaZipCodes;
+import com.darkstar.supporting.Order;
+import com.darkstar.supporting.Person;
+import org.junit.Test;
+
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author michael snavely
+ */
+public class ClassMetadataTest {
+
+    @Test
+    public void classMetadataTest() {
+        ClassMetadata metadata = ClassMetadata.of(Order.class);
+        assertThat(ClassMetadata.of(Order.class), sameInstance(metadata));
+
+        assertTrue(metadata.hasBusinessName());
+        assertThat(metadata.getBusinessName(), equalTo("Order"));
+        assertTrue(metadata.hasBusinessComposites());
+        assertThat(metadata.getBusinessComposites(), equalTo(new String[] {"Person", "Item"}));
+        assertTrue(metadata.hasFieldBusinessNames());
+
+        List<String> names = metadata.getNamedFields().stream()
+                .map(ClassMetadata.FieldMetadata::getBusinessName)
+                .collect(Collectors.toList());
+        assertThat(names.toString(), equalTo("[FirstName, LastName, Sku, Description, LineOne, HomeAddress]"));
+
+        metadata = ClassMetadata.of(GregorianCalendar.class);
+        assertFalse(metadata.hasBusinessName());
+        assertThat(metadata.getBusinessName(), nullValue());
+        assertFalse(metadata.hasBusinessComposites());
+        assertFalse(metadata.hasFieldBusinessNames());
+        assertTrue(metadata.getFields().size() > metadata.getDeclaredFields().length);
+    }
+
+    @Test
+    public void fieldMetadataTest() throws NoSuchFieldException {
+        ClassMetadata.FieldMetadata field = ClassMetadata.of(Person.class.getDeclaredField("residences"));
+        assertThat(field.getBusinessName(), equalTo("Properties"));
+        assertThat(field.getNameType(), equalTo(NamePointerBean.NAME_TYPE.COLLECTION));
+        assertThat(field.getNameType(null), equalTo(NamePointerBean.NAME_TYPE.BUSINESS_CLASS));
+
+        field = ClassMetadata.of(Person.class.getDeclaredField("firstName"));
+        assertThat(field.getNameType(), equalTo(NamePointerBean.NAME_TYPE.TERMINAL));
+        assertThat(field.getNameType(null), equalTo(NamePointerBean.NAME_TYPE.TERMINAL));
+
+        field = ClassMetadata.of(AreaZipCodes.class.getDeclaredField("zipCodes"));
+        assertThat(field.getNameType(), equalTo(NamePointerBean.NAME_TYPE.ARRAY));
+        assertThat(field.getNameType(new int[0]), equalTo(NamePointerBean.NAME_TYPE.ARRAY));
+    }
+}
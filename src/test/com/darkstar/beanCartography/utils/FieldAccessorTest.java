@@ -0,0 +1,74 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.utils;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+/**
+ * @author michael snavely
+ */
+public class FieldAccessorTest {
+
+    private static class Primitives {
+        private static String label = "static";
+        private int count = 0;
+        private long total = 0L;
+        private double rate = 0.0;
+        private char grade = ' ';
+        private String name = null;
+    }
+
+    @Test
+    public void copyTest() throws NoSuchFieldException {
+        Primitives source = new Primitives();
+        source.count = 42;
+        source.total = Long.MAX_VALUE;
+        source.rate = 1.5;
+        source.grade = 'A';
+        source.name = "source";
+        Primitives target = new Primitives();
+
+        for (String name : new String[] {"count", "total", "rate", "grade", "name"}) {
+            FieldAccessor accessor = FieldAccessor.of(Primitives.class.getDeclaredField(name));
+            accessor.copy(accessor, source, target);
+        }
+        assertThat(target.count, equalTo(42));
+        assertThat(target.total, equalTo(Long.MAX_VALUE));
+        assertThat(target.rate, equalTo(1.5));
+        assertThat(target.grade, equalTo('A'));
+        assertThat(target.name, sameInstance(source.name));
+
+        // different primitive types are widened just like reflection...
+        FieldAccessor.of(Primitives.class.getDeclaredField("total")).copy(FieldAccessor.of(Primitives.class.getDeclaredField("count")), source, target);
+        assertThat(target.total, equalTo(42L));
+        FieldAccessor.of(Primitives.class.getDeclaredField("rate")).set(target, 7);
+        assertThat(target.rate, equalTo(7.0));
+    }
+
+    @Test
+    public void staticFieldTest() throws NoSuchFieldException {
+        FieldAccessor accessor = FieldAccessor.of(Primitives.class.getDeclaredField("label"));
+        assertThat(accessor.get(null), equalTo((Object) "static"));
+        accessor.set(new Primitives(), "changed");
+        assertThat(Primitives.label, equalTo("changed"));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.utils;
+
+import com.darkstar.supporting.Address;
+import org.junit.Test;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author michael snavely
+ */
+public class GenericTypesTest {
+
+    private static class AddressList extends ArrayList<Address> {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static class Containers<T extends Address> {
+        private List<Address> addresses;
+        private AddressList addressList;
+        private List<? extends Address> extending;
+        private List<? super Address> superOf;
+        private List<T> variable;
+        private List<Map<String, Address>> nested;
+        private List<Address>[] genericArray;
+        private Address[] array;
+        private SortedMap<String, List<Address>> map;
+        @SuppressWarnings("rawtypes")
+        private List raw;
+    }
+
+    private static Type type(String name) throws NoSuchFieldException {
+        return Containers.class.getDeclaredField(name).getGenericType();
+    }
+
+    @Test
+    public void elementTypeTest() throws NoSuchFieldException {
+        assertThat(GenericTypes.elementType(type("addresses")), equalTo((Type) Address.class));
+        assertThat(GenericTypes.elementType(type("addressList")), equalTo((Type) Address.class));
+        assertThat(GenericTypes.rawClass(GenericTypes.elementType(type("extending"))), equalTo((Object) Address.class));
+        assertThat(GenericTypes.rawClass(GenericTypes.elementType(type("superOf"))), equalTo((Object) Address.class));
+        assertThat(GenericTypes.rawClass(GenericTypes.elementType(type("variable"))), equalTo((Object) Address.class));
+        assertThat(GenericTypes.elementType(type("array")), equalTo((Type) Address.class));
+        assertThat(GenericTypes.elementType(type("raw")), equalTo((Type) Object.class));
+
+        Type nested = GenericTypes.elementType(type("nested"));
+        assertTrue(nested instanceof ParameterizedType);
+        assertThat(GenericTypes.rawClass(nested), equalTo((Object) Map.class));
+        assertThat(GenericTypes.valueType(nested), equalTo((Type) Address.class));
+
+        Type component = GenericTypes.elementType(type("genericArray"));
+        assertThat(GenericTypes.rawClass(component), equalTo((Object) List.class));
+        assertThat(GenericTypes.elementType(component), equalTo((Type) Address.class));
+        assertThat(GenericTypes.rawClass(type("genericArray")), equalTo((Object) List[].class));
+    }
+
+    @Test
+    public void mapTypesTest() throws NoSuchFieldException {
+        assertThat(GenericTypes.keyType(type("map")), equalTo((Type) String.class));
+        assertThat(GenericTypes.elementType(GenericTypes.valueType(type("map"))), equalTo((Type) Address.class));
+        assertThat(GenericTypes.keyType(type("addresses")), equalTo((Type) Object.class));
+
+        ClassMetadata.FieldMetadata field = ClassMetadata.of(Containers.class.getDeclaredField("map"));
+        assertThat(field.getKeyType(), equalTo((Type) String.class));
+        assertTrue(field.getValueType() == field.getValueType());
+    }
+}
@@ -21,8 +21,12 @@ import com.darkstar.supporting.Order;
 import com.darkstar.supporting.Person;
 import org.junit.Test;
 
+import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
 import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
@@ -125,5 +129,48 @@ public class NameUtilsTest {
         assertFalse(NameUtils.hasFieldBusinessNames(new GregorianCalendar()));
         assertTrue(NameUtils.hasFieldBusinessNames(new Order()));
     }
-}
 
+    private static class Base {
+        private String label = null;
+    }
+
+    private static final class Cache {
+        private Map<Long, byte[]> rows = null;
+        private ByteBuffer buffer = null;
+        private Cache next = null;
+    }
+
+    private static class Holder {
+        private Cache cache = null;
+        private List<Order> orders = null;
+    }
+
+    @Test
+    public void canReachBusinessNamesTest() throws NoSuchFieldException {
+        try {
+            NameUtils.canReachBusinessNames(null);
+            assertTrue(false);
+        } catch (NullPointerException e) {
+            assertThat(e.getMessage(), equalTo("Type cannot be null"));
+        }
+
+        assertTrue(NameUtils.canReachBusinessNames(Person.class));
+        assertTrue(NameUtils.canReachBusinessNames(Order[].class));
+        assertTrue(NameUtils.canReachBusinessNames(Object.class));
+        assertTrue(NameUtils.canReachBusinessNames(Holder.class));
+        assertTrue(NameUtils.canReachBusinessNames(Holder.class.getDeclaredField("orders").getGenericType()));
+        assertFalse(NameUtils.canReachBusinessNames(Holder.class.getDeclaredField("cache").getGenericType()));
+        assertFalse(NameUtils.canReachBusinessNames(Cache.class.getDeclaredField("rows").getGenericType()));
+        assertFalse(NameUtils.canReachBusinessNames(String.class));
+        assertFalse(NameUtils.canReachBusinessNames(ByteBuffer.class));
+
+        // anything that can be extended may really hold a named subclass...
+        assertTrue(NameUtils.canReachBusinessNames(GregorianCalendar.class));
+        assertTrue(NameUtils.canReachBusinessNames(Serializable.class));
+        assertTrue(NameUtils.canReachBusinessNames(Base.class));
+        assertFalse(NameUtils.canInstanceReachBusinessNames(GregorianCalendar.class));
+        assertFalse(NameUtils.canInstanceReachBusinessNames(Base.class));
+        assertFalse(NameUtils.canInstanceReachBusinessNames(Object.class));
+        assertTrue(NameUtils.canInstanceReachBusinessNames(Holder.class));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ ******************************************************************************
+ *  Copyright 2016 Michael Snavely
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ ******************************************************************************
+ */
+package com.darkstar.beanCartography.utils.finder;
+
+import com.darkstar.beanCartography.NameFilter;
+import com.darkstar.supporting.Address;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsCollectionContaining.hasItem;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+/**
+ * @author michael snavely
+ */
+public class FinderTest {
+
+    private static class Node {
+        private Node next = null;
+        private Address address = null;
+        private List<Address> addresses = new ArrayList<>();
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Node;
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
+
+    @Test
+    public void sharedAndCyclicReferencesTest() {
+        Address shared = new Address();
+        Node first = new Node();
+        Node second = new Node();
+        first.next = second;
+        second.next = first;
+        first.address = shared;
+        second.address = shared;
+        first.addresses.add(shared);
+        second.addresses.add(shared);
+        second.addresses.add(new Address());
+
+        List<Object> found = new ArrayList<>();
+        Finder finder = new Finder();
+        finder.addFilterIntecepter(o -> o instanceof Address || o instanceof Node, found::add);
+        finder.find(first);
+
+        // equal nodes are still different objects and every object is only found once...
+        assertThat(found.size(), equalTo(4));
+        assertThat(found.get(0), sameInstance((Object) first));
+        assertThat(found.get(1), sameInstance((Object) second));
+        assertThat(found.get(2), sameInstance((Object) shared));
+    }
+
+    private static class Cached {
+        private Address address = new Address();
+        private Map<Long, byte[]> rows = new HashMap<>();
+    }
+
+    private static class NameReachFilter implements Filter {
+        private final NameFilter names = new NameFilter();
+
+        @Override
+        public boolean accept(Object o) {
+            return true;
+        }
+
+        @Override
+        public boolean canReach(Class<?> type) {
+            return names.canReach(type);
+        }
+
+        @Override
+        public boolean canReach(Field field) {
+            return names.canReach(field);
+        }
+    }
+
+    @Test
+    public void pruneUnreachableTest() {
+        Cached cached = new Cached();
+        byte[] row = new byte[] { 1, 2, 3 };
+        cached.rows.put(1L, row);
+
+        // nothing named can be in the map so neither it nor its contents are searched...
+        List<Object> found = new ArrayList<>();
+        Finder finder = new Finder();
+        finder.addFilterIntecepter(new NameReachFilter(), found::add);
+        finder.find(cached);
+        assertThat(found, hasItem((Object) cached.address));
+        assertThat(found, not(hasItem((Object) cached.rows)));
+        assertThat(found, not(hasItem((Object) row)));
+
+        found.clear();
+        finder = new Finder(true, true, true, false);
+        finder.addFilterIntecepter(new NameReachFilter(), found::add);
+        finder.find(cached);
+        assertThat(found, hasItem((Object) cached.rows));
+        assertThat(found, hasItem((Object) row));
+    }
+}
@@ -32,6 +32,15 @@ public class Item {
     @NamedField(name = "Description")
     private String description = null;
 
+    @NamedField(name = "Quantity")
+    private int quantity = 0;
+
+    @NamedField(name = "Price")
+    private double price = 0.0;
+
+    @NamedField(name = "Taxable")
+    private boolean taxable = false;
+
     /**
      * Builder
      */
@@ -39,6 +48,9 @@ public class Item {
 
         private String sku = null;
         private String description = null;
+        private int quantity = 0;
+        private double price = 0.0;
+        private boolean taxable = false;
 
         public Builder() {
             super();
@@ -54,6 +66,21 @@ public class Item {
             return this;
         }
 
+        public Builder quantity(int i) {
+            quantity = i;
+            return this;
+        }
+
+        public Builder price(double d) {
+            price = d;
+            return this;
+        }
+
+        public Builder taxable(boolean b) {
+            taxable = b;
+            return this;
+        }
+
         public Item build() {
             return new Item(this);
         }
@@ -68,6 +95,9 @@ public class Item {
         super();
         this.sku         = builder.sku;
         this.description = builder.description;
+        this.quantity    = builder.quantity;
+        this.price       = builder.price;
+        this.taxable     = builder.taxable;
     }
 
     public Item() {
@@ -89,5 +119,28 @@ public class Item {
     public void setDescription(String description) {
         this.description = description;
     }
-}
 
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public boolean isTaxable() {
+        return taxable;
+    }
+
+    public void setTaxable(boolean taxable) {
+        this.taxable = taxable;
+    }
+}